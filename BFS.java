@@ -7,6 +7,8 @@ import java.util.HashMap;
  * avoiding blocked coordinates.
  */
 public class BFS {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
   /**
    * Finds the shortest safe path between two coordinates in a grid, avoiding blocked coordinates.
    *
@@ -17,7 +19,7 @@ public class BFS {
    */
   public static ArrayList<Direction> directions(Coordinate from, Coordinate to, BitMap safe) {
     if (from.equals(to)) return new ArrayList<>();
-    BitMap visited = safe.not().or(from);
+    int visited = BitMaps.not(safe.hashCode()) | BitMaps.of(from);
     HashMap<Coordinate, Coordinate> fathers = new HashMap<>();
     HashMap<Coordinate, Direction> directions = new HashMap<>();
     ArrayList<Coordinate> queue = new ArrayList<>();
@@ -27,11 +29,11 @@ public class BFS {
       Coordinate current = queue.get(pointer++);
       for (Direction direction : Direction.values()) {
         Coordinate copy = current.copy();
-        if (copy.move(direction) && !visited.get(copy)) {
+        if (copy.move(direction) && !BitMaps.get(visited, copy)) {
           fathers.put(copy, current);
           directions.put(copy, direction);
           if (copy.equals(to)) return backtrack(from, to, fathers, directions);
-          visited.update(copy);
+          visited |= BitMaps.of(copy);
           queue.add(copy);
         }
       }
@@ -39,6 +41,48 @@ public class BFS {
     return null;
   }
 
+  /**
+   * Finds the shortest safe path between two coordinates in a grid, avoiding blocked coordinates.
+   * Returns the same path as directions(), but expands whole frontier layers at once on int masks
+   * (neighbors &amp; safe &amp; ~visited) instead of one coordinate at a time.
+   * The path is then recovered by intersecting each layer with the neighbors of the part of the next layer
+   * that still leads to the target, and walking forward through these layers in the order of Direction.values().
+   *
+   * @param from the starting coordinate.
+   * @param to   the target coordinate.
+   * @param safe a BitMap representing safe coordinates.
+   * @return an ArrayList of Directions representing the path from 'from' to 'to', or null if no path exists.
+   */
+  public static ArrayList<Direction> frontierDirections(Coordinate from, Coordinate to, BitMap safe) {
+    if (from.equals(to)) return new ArrayList<>();
+    int start = BitMaps.of(from), target = BitMaps.of(to), safeMask = safe.hashCode();
+    int[] layers = new int[16]; // a path visits each of the 16 cells at most once
+    layers[0] = start;
+    int count = 1, visited = start;
+    while ((layers[count - 1] & target) == 0) {
+      int next = BitMaps.neighbors(layers[count - 1]) & safeMask & ~visited;
+      if (next == 0) return null;
+      layers[count++] = next;
+      visited |= next;
+    }
+    // keep only the cells of each layer that lie on a shortest path to the target
+    layers[count - 1] = target;
+    for (int layer = count - 2; layer > 0; layer--) layers[layer] &= BitMaps.neighbors(layers[layer + 1]);
+    ArrayList<Direction> result = new ArrayList<>(count - 1);
+    int current = start;
+    for (int layer = 1; layer < count; layer++) {
+      for (Direction direction : DIRECTIONS) {
+        int next = BitMaps.move(current, direction);
+        if ((next & layers[layer]) != 0) {
+          result.add(direction);
+          current = next;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * Backtracks from the target coordinate to the starting coordinate using the fathers and directions maps.
    *
@@ -58,9 +102,82 @@ public class BFS {
     return result;
   }
 
+  /**
+   * Finds the length of the shortest safe path between two coordinates in a grid.
+   *
+   * @param from the starting coordinate.
+   * @param to   the target coordinate.
+   * @param safe a BitMap representing safe coordinates.
+   * @return the length of the path, or Integer.MAX_VALUE if no path exists.
+   */
   public static int distance(Coordinate from, Coordinate to, BitMap safe) {
-    ArrayList<Direction> path = directions(from, to, safe);
-    if (path == null) return Integer.MAX_VALUE;
-    return path.size();
+    return distance(from.hashCode(), to.hashCode(), safe.hashCode());
+  }
+
+  /**
+   * Finds the length of the shortest safe path between two cells without allocating.
+   * Expands whole layers backwards from the target with BitMaps.neighbors until a layer touches the start.
+   *
+   * @param from the index (Coordinate.hashCode()) of the starting cell.
+   * @param to   the index of the target cell.
+   * @param safe a mask representing safe cells.
+   * @return the length of the path, or Integer.MAX_VALUE if no path exists.
+   */
+  public static int distance(int from, int to, int safe) {
+    if (from == to) return 0;
+    int start = 1 << from, target = BitMaps.neighbors(start);
+    int layer = 1 << to & safe, visited = layer | start;
+    for (int distance = 1; layer != 0; distance++) {
+      if ((layer & target) != 0) return distance;
+      layer = BitMaps.neighbors(layer) & safe & ~visited;
+      visited |= layer;
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Finds the length of the shortest safe path between two coordinates on a grid of arbitrary size.
+   * Expands whole frontier layers with getNeighbors() until the target is reached.
+   *
+   * @param from the starting coordinate.
+   * @param to   the target coordinate.
+   * @param safe a BoardMap representing safe coordinates.
+   * @return the length of the path, or Integer.MAX_VALUE if no path exists.
+   */
+  public static int distance(Coordinate from, Coordinate to, BoardMap safe) {
+    if (safe.getBoard().index(from) == safe.getBoard().index(to)) return 0;
+    if (!safe.get(to)) return Integer.MAX_VALUE;
+    BoardMap visited = safe.getBoard().of(from), layer = visited.copy();
+    for (int distance = 1; ; distance++) {
+      layer = layer.getNeighbors().and(safe).subtract(visited);
+      if (layer.isEmpty()) return Integer.MAX_VALUE;
+      if (layer.get(to)) return distance;
+      visited.update(layer);
+    }
+  }
+
+  /**
+   * Finds the first step of the shortest safe path between two cells without allocating.
+   * The step is the same as the first element of directions(from, to, safe):
+   * the first direction (in the order of Direction.values()) that leads to a cell on a shortest path.
+   *
+   * @param from the index (Coordinate.hashCode()) of the starting cell.
+   * @param to   the index of the target cell.
+   * @param safe a mask representing safe cells.
+   * @return the first direction of the path, or null if no path exists or the cells are equal.
+   */
+  public static Direction direction(int from, int to, int safe) {
+    if (from == to) return null;
+    int start = 1 << from, target = BitMaps.neighbors(start);
+    int layer = 1 << to & safe, visited = layer | start;
+    while (layer != 0) {
+      if ((layer & target) != 0) {
+        for (Direction direction : DIRECTIONS)
+          if ((BitMaps.move(start, direction) & layer) != 0) return direction;
+      }
+      layer = BitMaps.neighbors(layer) & safe & ~visited;
+      visited |= layer;
+    }
+    return null;
   }
 }
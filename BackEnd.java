@@ -1,3 +1,5 @@
+import java.util.random.RandomGenerator;
+
 /**
  * Contains the inner calculations of the representations required for the GUI.
  */
@@ -12,6 +14,15 @@ public class BackEnd {
     this(Level.generateLevel());
   }
 
+  /**
+   * Constructs a BackEnd object with a level generated from the specified random source.
+   *
+   * @param random The random source to generate the level from.
+   */
+  public BackEnd(RandomGenerator random) {
+    this(Level.generateLevel(random));
+  }
+
   /**
    * Constructs a BackEnd object with the specified level.
    *
@@ -35,7 +46,7 @@ public class BackEnd {
    * loaded (or observed), observed breeze, observed stench, and observed gold.
    */
   public void updateObservations() {
-    Coordinate current = level.getAgentCoord();
+    int current = BitMaps.of(level.getAgentCoord());
     // Update the loaded BitMap with the current agent's position
     loaded.update(current);
     // Update the breeze BitMap with the current breeze observations
@@ -100,27 +111,21 @@ public class BackEnd {
    * @return A unique ID representing the current observed level state.
    */
   public ID getID() {
-    if (!level.hasArrow()) {
-      return new ID(loaded, breeze, stench, level.getShotCoordinate(), level.getShotDirection(), level.hasWumpus(), level.hasGold());
-    } else {
-      return new ID(loaded, breeze, stench, new Coordinate(0, 0), Direction.UP, false, level.hasGold());
-    }
+    return new ID(this.getKey());
   }
 
   /**
-   * Returns the information about the cell at the specified coordinate in HTML.
+   * Returns the packed key of the ID of the current observed level state, without allocating.
    *
-   * @param coordinate The coordinate to check.
-   * @return A string containing the information about the cell.
+   * @return The packed key (ID.getKey()) of the current observed level state.
    */
-  public String getCellInfo(Coordinate coordinate) {
-    StringBuilder info = new StringBuilder("<html>");
-    if (level.getAgentCoord().equals(coordinate)) info.append("You are here. <br/>");
-    if (this.getBreeze().get(coordinate)) info.append("You feel a breeze. <br/>");
-    if (this.getStench().get(coordinate)) info.append("You smell a stench. <br/>");
-    if (this.getGold().get(coordinate)) info.append("You see glitter. <br/>");
-    info.append("</html>");
-    return info.toString().replace("<br/></html>", "</html>"); // replace trailing <br/>
+  public long getKey() {
+    if (!level.hasArrow()) {
+      return ID.key(loaded.hashCode(), breeze.hashCode(), stench.hashCode(), level.getShotCoordinate().hashCode(),
+          level.getShotDirection(), !level.hasWumpus(), level.hasGold());
+    } else {
+      return ID.key(loaded.hashCode(), breeze.hashCode(), stench.hashCode(), 0, Direction.UP, true, level.hasGold());
+    }
   }
 
   /**
@@ -130,24 +135,6 @@ public class BackEnd {
    * @return A string containing the general information about the game.
    */
   public String getGeneralInfo() {
-    if (level.hasEnded()) {
-      switch (level.endType()) {
-        case PIT:
-          return "You fell into a pit. <br/> Game over. <br/> Score: " + level.getScore() + "<br/> Play again? ";
-        case WUMPUS:
-          return "You were eaten by the Wumpus. <br/> Game over. <br/> Score: " + level.getScore() + "<br/> Play again? ";
-        case WIN:
-          return "You brought the gold back! <br/> Game over. <br/> Score: " + level.getScore() + "<br/> Play again? ";
-      }
-    }
-    StringBuilder info = new StringBuilder();
-    if (level.hasWumpus()) info.append("The Wumpus still dwells. <br/>");
-    else info.append("The Wumpus is dead. <br/>");
-    if (level.hasArrow()) info.append("You have an arrow. <br/>");
-    else info.append("You used your arrow. <br/>");
-    if (level.hasGold()) info.append("You have to retrieve the gold. <br/>");
-    else info.append("You have to bring back the gold. <br/>");
-    info.append("Current score: ").append(level.getScore());
-    return info.toString(); // replace trailing <br/>
+    return new GameView(this).getGeneralInfo();
   }
 }
@@ -0,0 +1,252 @@
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache from observed level states (the packed key of their ID) to what the bots inferred from them.
+ * The same observed state comes up again and again over millions of games, so SafeReturnBot and SafeExploreBot
+ * can skip their inference and planning when the state was seen before.
+ * <p>
+ * This does not make them faster: since SafeReturnBot infers incrementally, a lookup costs about as much as the
+ * inference it replaces. Over 1M games with seed 3, Bot plays 0.9-1.2M games/s once warm, and with a cache
+ * 0.8-0.9M games/s, at 99.4% hits. The cache is kept for bots whose inference is costly; Tournament prints its
+ * counters for the cached bot, so that this can be checked.
+ * <p>
+ * The cache is a fixed table of buckets of WAYS slots, and a state can only be cached in the bucket of its mixed
+ * key. A slot holds an immutable entry (the packed key and the belief), swapped with compare-and-set, so the cache
+ * is safe to share between threads without locks and a lookup never sees a key with the belief of another.
+ * When the bucket of a new state is full, a random slot of the bucket is overwritten, so every operation looks at
+ * WAYS slots at most, however long the cache stays full. The cache never holds more beliefs than it has slots:
+ * the capacity rounded down to a power of two (at least WAYS). Racing insertions of the same state may cache it
+ * twice in its bucket, which only wastes a slot.
+ */
+public class BeliefCache {
+  /**
+   * The number of slots per bucket.
+   */
+  public static final int WAYS = 4;
+  private final AtomicReferenceArray<Entry> entries;
+  private final int buckets;
+  private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+  /**
+   * Constructs an empty BeliefCache with the specified capacity.
+   *
+   * @param capacity The maximum number of beliefs to keep, which is rounded down to a power of two (at least WAYS).
+   */
+  public BeliefCache(int capacity) {
+    int slots = Math.max(WAYS, Integer.highestOneBit(capacity));
+    this.entries = new AtomicReferenceArray<>(slots);
+    this.buckets = slots / WAYS - 1;
+  }
+
+  /**
+   * Returns the first slot of the bucket of a key.
+   *
+   * @param key The packed key.
+   * @return The first slot of the bucket.
+   */
+  private int bucket(long key) {
+    return ((int) ID.mix(key) & this.buckets) * WAYS;
+  }
+
+  /**
+   * Returns the belief cached for an observed level state.
+   *
+   * @param key The packed key of the observed level state, as returned by BackEnd.getKey().
+   * @return The cached belief, or null if there is none.
+   */
+  public Belief get(long key) {
+    for (int slot = this.bucket(key), end = slot + WAYS; slot < end; slot++) {
+      Entry entry = this.entries.get(slot);
+      if (entry != null && entry.key == key) {
+        this.hits.increment();
+        return entry.belief;
+      }
+    }
+    this.misses.increment();
+    return null;
+  }
+
+  /**
+   * Caches the belief for an observed level state, evicting another entry of its bucket if the bucket is full.
+   *
+   * @param key    The packed key of the observed level state, as returned by BackEnd.getKey().
+   * @param belief The belief.
+   */
+  public void put(long key, Belief belief) {
+    Entry entry = new Entry(key, belief);
+    int first = this.bucket(key);
+    while (true) {
+      int empty = -1;
+      for (int slot = first; slot < first + WAYS; slot++) {
+        Entry stored = this.entries.get(slot);
+        if (stored == null) {
+          if (empty < 0) empty = slot;
+        } else if (stored.key == key) {
+          return; // cached by another thread; both beliefs are inferred from the same state
+        }
+      }
+      if (empty >= 0) {
+        if (this.entries.compareAndSet(empty, null, entry)) return;
+        continue; // another thread took the slot, look again
+      }
+      int victim = first + ThreadLocalRandom.current().nextInt(WAYS);
+      Entry stored = this.entries.get(victim);
+      if (stored != null && this.entries.compareAndSet(victim, stored, entry)) {
+        this.evictions.increment();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of lookups that found a belief.
+   *
+   * @return The number of hits.
+   */
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that found no belief.
+   *
+   * @return The number of misses.
+   */
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Returns the number of beliefs evicted to respect the capacity.
+   *
+   * @return The number of evictions.
+   */
+  public long getEvictions() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * Returns the number of cached beliefs. Scans the table, so it is slow.
+   *
+   * @return The number of cached beliefs.
+   */
+  public int size() {
+    int size = 0;
+    for (int slot = 0; slot < this.entries.length(); slot++) if (this.entries.get(slot) != null) size++;
+    return size;
+  }
+
+  /**
+   * Returns the maximum number of cached beliefs.
+   *
+   * @return The number of slots.
+   */
+  public int capacity() {
+    return this.entries.length();
+  }
+
+  /**
+   * A cached belief with its packed key. Immutable, so that a slot swaps both at once.
+   */
+  private static class Entry {
+    private final long key;
+    private final Belief belief;
+
+    /**
+     * Constructs an entry.
+     *
+     * @param key    The packed key of the observed level state.
+     * @param belief The belief.
+     */
+    private Entry(long key, Belief belief) {
+      this.key = key;
+      this.belief = belief;
+    }
+  }
+
+  /**
+   * Returns a string representation of the counters of the cache.
+   *
+   * @return A string representation of the counters of the cache.
+   */
+  public String toString() {
+    return "Size: " + this.size() + ", hits: " + this.getHits() + ", misses: " + this.getMisses() +
+        ", evictions: " + this.getEvictions();
+  }
+
+  /**
+   * The knowledge of SafeReturnBot for an observed level state,
+   * together with the action chosen from every position in that state.
+   * The masks are in the BitMap layout.
+   */
+  public static class Belief {
+    /**
+     * Marks a position for which no action was cached yet.
+     */
+    public static final byte UNKNOWN = -2;
+    /**
+     * Marks a position from which the bot falls back to a random action.
+     */
+    public static final byte RANDOM = -1;
+
+    private final int nonWumpusSpaces, nonPitSpaces, mustPitSpaces, possibleWumpusSpaces;
+    // indexed by Coordinate.hashCode(); a Direction ordinal, UNKNOWN or RANDOM.
+    // Racing writers store the same deterministic value, so no synchronization is needed.
+    private final byte[] actions = new byte[20];
+
+    /**
+     * Constructs a Belief from the masks inferred by SafeReturnBot.
+     *
+     * @param nonWumpusSpaces      The cells known not to hold the Wumpus.
+     * @param nonPitSpaces         The cells known not to hold a pit.
+     * @param mustPitSpaces        The cells known to hold a pit.
+     * @param possibleWumpusSpaces The cells that may hold the Wumpus.
+     */
+    public Belief(int nonWumpusSpaces, int nonPitSpaces, int mustPitSpaces, int possibleWumpusSpaces) {
+      this.nonWumpusSpaces = nonWumpusSpaces;
+      this.nonPitSpaces = nonPitSpaces;
+      this.mustPitSpaces = mustPitSpaces;
+      this.possibleWumpusSpaces = possibleWumpusSpaces;
+      Arrays.fill(this.actions, UNKNOWN);
+    }
+
+    public int getNonWumpusSpaces() {
+      return this.nonWumpusSpaces;
+    }
+
+    public int getNonPitSpaces() {
+      return this.nonPitSpaces;
+    }
+
+    public int getMustPitSpaces() {
+      return this.mustPitSpaces;
+    }
+
+    public int getPossibleWumpusSpaces() {
+      return this.possibleWumpusSpaces;
+    }
+
+    /**
+     * Returns the action cached for a position.
+     *
+     * @param position The index (Coordinate.hashCode()) of the position.
+     * @return A Direction ordinal, UNKNOWN or RANDOM.
+     */
+    public byte getAction(int position) {
+      return this.actions[position];
+    }
+
+    /**
+     * Caches the action for a position.
+     *
+     * @param position  The index (Coordinate.hashCode()) of the position.
+     * @param direction The direction to move in, or null to fall back to a random action.
+     */
+    public void setAction(int position, Direction direction) {
+      this.actions[position] = direction == null ? RANDOM : (byte) direction.ordinal();
+    }
+  }
+}
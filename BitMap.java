@@ -1,4 +1,9 @@
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a bitmap of coordinates.
@@ -91,6 +96,15 @@ public class BitMap {
     this.value |= other.hashCode();
   }
 
+  /**
+   * Updates with the Bitwise OR of this BitMap with a mask in the BitMap layout.
+   *
+   * @param other The mask to OR with.
+   */
+  public void update(int other) {
+    this.value |= other;
+  }
+
   /**
    * Updates with the Bitwise OR of this BitMap with a single coordinate.
    * Equivalent to ORing with a BitMap containing only that coordinate.
@@ -212,34 +226,64 @@ public class BitMap {
   }
 
   /**
-   * Generates a uniformly random BitMap.
+   * Generates a uniformly random BitMap using the random source of the current thread.
    *
    * @return A uniformly random BitMap.
    */
   public static BitMap random() {
+    return random(ThreadLocalRandom.current());
+  }
+
+  /**
+   * Generates a uniformly random BitMap.
+   *
+   * @param random The random source to draw from.
+   * @return A uniformly random BitMap.
+   */
+  public static BitMap random(RandomGenerator random) {
     // 0b1111011110111101111 is the fully occupied bitmap.
-    return new BitMap((int) (Math.random() * 1048576) & 0b1111011110111101111);
+    return new BitMap(random.nextInt(1048576) & 0b1111011110111101111);
   }
 
   /**
-   * Randomizes the BitMap value.
+   * Randomizes the BitMap value using the random source of the current thread.
    */
   public void randomize() {
+    this.randomize(ThreadLocalRandom.current());
+  }
+
+  /**
+   * Randomizes the BitMap value.
+   *
+   * @param random The random source to draw from.
+   */
+  public void randomize(RandomGenerator random) {
     // 0b1111011110111101111 is the fully occupied bitmap.
-    this.value = (int) (Math.random() * 1048576) & 0b1111011110111101111;
+    this.value = random.nextInt(1048576) & 0b1111011110111101111;
   }
 
   /**
-   * Generates a random BitMap with a specified density.
+   * Generates a random BitMap with a specified density using the random source of the current thread.
    *
    * @param density The density of the BitMap.
    * @return A uniformly random BitMap with the specified density.
    */
   public static BitMap uniform(double density) {
+    return uniform(density, ThreadLocalRandom.current());
+  }
+
+  /**
+   * Generates a random BitMap with a specified density.
+   *
+   * @param density The density of the BitMap.
+   * @param random  The random source to draw from.
+   * @return A uniformly random BitMap with the specified density.
+   */
+  public static BitMap uniform(double density, RandomGenerator random) {
     int value = 0;
     for (int bit = 0; bit < 20; bit++) {
       value *= 2;
-      if (Math.random() < density) value++;
+      if (random.nextDouble() < density) value++;
     }
     // 0b1111011110111101111 is the fully occupied bitmap.
     return new BitMap(value & 0b1111011110111101111);
@@ -247,23 +291,58 @@ public class BitMap {
 
   /**
    * Returns an ArrayList of coordinates in the BitMap.
+   * Like size() and forEach(), only the cells of the grid are considered,
+   * so the padding bits set by not() are ignored.
    *
    * @return An ArrayList of coordinates in the BitMap.
    */
   public ArrayList<Coordinate> asCoordinates() {
-    ArrayList<Coordinate> coordinates = new ArrayList<>();
-    for (Coordinate coordinate : Coordinate.allCoordinates)
-      if (this.get(coordinate)) coordinates.add(coordinate);
+    ArrayList<Coordinate> coordinates = new ArrayList<>(this.size());
+    for (int remaining = this.value & BitMaps.FULL; remaining != 0; remaining &= remaining - 1)
+      coordinates.add(Coordinate.allCoordinates.get(Integer.numberOfTrailingZeros(remaining)));
     return coordinates;
   }
 
   /**
-   * Returns the size of the BitMap. (The number of bits set to 1).
+   * Performs the given action on the index (Coordinate.hashCode()) of every cell in the BitMap, in ascending order.
+   * Walks the set bits with Integer.numberOfTrailingZeros, so no list is built.
+   *
+   * @param action The action to perform on every index.
+   */
+  public void forEach(IntConsumer action) {
+    for (int remaining = this.value & BitMaps.FULL; remaining != 0; remaining &= remaining - 1)
+      action.accept(Integer.numberOfTrailingZeros(remaining));
+  }
+
+  /**
+   * Returns an iterator over the indices (Coordinate.hashCode()) of the cells in the BitMap, in ascending order.
+   *
+   * @return An iterator over the indices of the cells in the BitMap.
+   */
+  public PrimitiveIterator.OfInt iterator() {
+    return new PrimitiveIterator.OfInt() {
+      private int remaining = value & BitMaps.FULL;
+
+      public boolean hasNext() {
+        return this.remaining != 0;
+      }
+
+      public int nextInt() {
+        if (this.remaining == 0) throw new NoSuchElementException();
+        int index = Integer.numberOfTrailingZeros(this.remaining);
+        this.remaining &= this.remaining - 1;
+        return index;
+      }
+    };
+  }
+
+  /**
+   * Returns the size of the BitMap. (The number of cells set to 1).
    *
    * @return The size of the BitMap.
    */
   public int size() {
-    return this.asCoordinates().size();
+    return Integer.bitCount(this.value & BitMaps.FULL);
   }
 
   /**
@@ -275,7 +354,7 @@ public class BitMap {
   public Coordinate asCoordinate() {
     if (this.size() != 1)
       throw new IllegalArgumentException("Expected one coordinate with hashmap " + value + ". ");
-    return this.asCoordinates().get(0);
+    return Coordinate.allCoordinates.get(Integer.numberOfTrailingZeros(this.value & BitMaps.FULL));
   }
 
   /**
@@ -0,0 +1,150 @@
+/**
+ * A static mirror of the BitMap algebra on plain int masks.
+ * The masks use the same layout as BitMap (bit row * 5 + col, with the fifth column as padding),
+ * so mask == bitmap.hashCode() and the results agree bit for bit with the BitMap methods.
+ * None of these methods allocate, which makes them suitable for the inference and planning hot paths.
+ */
+public class BitMaps {
+  /**
+   * The fully occupied mask.
+   */
+  public static final int FULL = 0b1111011110111101111;
+
+  /**
+   * Returns the mask containing only the specified coordinate.
+   *
+   * @param coordinate The coordinate.
+   * @return The mask containing only the coordinate.
+   */
+  public static int of(Coordinate coordinate) {
+    return 1 << coordinate.hashCode();
+  }
+
+  /**
+   * Computes the Bitwise AND of two masks. Mirrors BitMap.and.
+   *
+   * @param a The first mask.
+   * @param b The second mask.
+   * @return a &amp; b.
+   */
+  public static int and(int a, int b) {
+    return a & b;
+  }
+
+  /**
+   * Computes the Bitwise OR of two masks. Mirrors BitMap.or.
+   *
+   * @param a The first mask.
+   * @param b The second mask.
+   * @return a | b.
+   */
+  public static int or(int a, int b) {
+    return a | b;
+  }
+
+  /**
+   * Computes the Bitwise REMOVE of two masks. Mirrors BitMap.subtract.
+   *
+   * @param a The first mask.
+   * @param b The mask to remove.
+   * @return a &amp; ~b.
+   */
+  public static int subtract(int a, int b) {
+    return a & ~b;
+  }
+
+  /**
+   * Computes the Bitwise NOT of a mask. Mirrors BitMap.not, so the padding bits are not cleared.
+   *
+   * @param a The mask.
+   * @return ~a.
+   */
+  public static int not(int a) {
+    return ~a;
+  }
+
+  /**
+   * Computes the Bitwise NOT of a mask restricted to the grid. Mirrors BitMap.invert.
+   *
+   * @param a The mask.
+   * @return ~a restricted to the grid.
+   */
+  public static int invert(int a) {
+    return ~a & FULL;
+  }
+
+  /**
+   * Computes the neighbors of all the bits in a mask. Mirrors BitMap.getNeighbors.
+   *
+   * @param a The mask.
+   * @return The mask of the neighbors.
+   */
+  public static int neighbors(int a) {
+    // shifts by 5 as up or down and shifts by 1 as left and right.
+    return (a << 1 | a >> 1 | a << 5 | a >>> 5) & FULL;
+  }
+
+  /**
+   * Moves every bit of a mask one step in the specified direction.
+   * Bits that would leave the grid are dropped.
+   *
+   * @param a         The mask.
+   * @param direction The direction to move in.
+   * @return The moved mask.
+   */
+  public static int move(int a, Direction direction) {
+    switch (direction) {
+      case UP:
+        return a >>> 5 & FULL;
+      case DOWN:
+        return a << 5 & FULL;
+      case LEFT:
+        return a >>> 1 & FULL;
+      case RIGHT:
+        return a << 1 & FULL;
+      default:
+        throw new IllegalArgumentException("Unidentifiable direction - what the fuck? ");
+    }
+  }
+
+  /**
+   * Checks if a specific coordinate is set in a mask. Mirrors BitMap.get.
+   *
+   * @param a          The mask.
+   * @param coordinate The coordinate to check.
+   * @return true if the coordinate is set, false otherwise.
+   */
+  public static boolean get(int a, Coordinate coordinate) {
+    return (a >> coordinate.hashCode() & 1) == 1;
+  }
+
+  /**
+   * Compresses a mask into 16 bits, one bit per cell (bit row * 4 + col), by dropping the padding column.
+   *
+   * @param a The mask.
+   * @return The compressed mask.
+   */
+  public static int compress(int a) {
+    return a & 0xF | a >>> 1 & 0xF0 | a >>> 2 & 0xF00 | a >>> 3 & 0xF000;
+  }
+
+  /**
+   * Expands a compressed mask back into the BitMap layout. Inverse of compress.
+   *
+   * @param a The compressed mask.
+   * @return The mask.
+   */
+  public static int expand(int a) {
+    return a & 0xF | (a & 0xF0) << 1 | (a & 0xF00) << 2 | (a & 0xF000) << 3;
+  }
+
+  /**
+   * Returns the number of bits set in a mask.
+   *
+   * @param a The mask.
+   * @return The number of bits set.
+   */
+  public static int popcount(int a) {
+    return Integer.bitCount(a);
+  }
+}
@@ -0,0 +1,179 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the geometry of a rectangular grid of arbitrary size.
+ * Cells are indexed row * columns + col, without padding; the masks that keep the horizontal neighbor shifts
+ * from wrapping around the rows are precomputed here, so the shifts in LongBitMap and WideBitMap stay branch-free.
+ * The original 4x4 grid (STANDARD) keeps using BitMap and BitMaps, whose layout has a padding column instead.
+ */
+public class Board {
+  /**
+   * The 4x4 grid of the game.
+   */
+  public static final Board STANDARD = new Board(4, 4);
+
+  private final int rows, columns, cells, words;
+  // one long per 64 cells; masks of all cells, of all cells except the first column, and except the last column.
+  private final long[] full, notFirstColumn, notLastColumn;
+
+  /**
+   * Constructs a Board with the specified number of rows and columns.
+   *
+   * @param rows    The number of rows.
+   * @param columns The number of columns.
+   */
+  public Board(int rows, int columns) {
+    if (rows <= 0 || columns <= 0) throw new IllegalArgumentException("Invalid board size " + rows + "x" + columns + ". ");
+    this.rows = rows;
+    this.columns = columns;
+    this.cells = rows * columns;
+    this.words = (this.cells + 63) >>> 6;
+    this.full = new long[this.words];
+    this.notFirstColumn = new long[this.words];
+    this.notLastColumn = new long[this.words];
+    for (int index = 0; index < this.cells; index++) {
+      long bit = 1L << index;
+      this.full[index >>> 6] |= bit;
+      if (index % columns != 0) this.notFirstColumn[index >>> 6] |= bit;
+      if (index % columns != columns - 1) this.notLastColumn[index >>> 6] |= bit;
+    }
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return The number of rows.
+   */
+  public int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns.
+   *
+   * @return The number of columns.
+   */
+  public int getColumns() {
+    return this.columns;
+  }
+
+  /**
+   * Returns the number of cells.
+   *
+   * @return The number of cells.
+   */
+  public int getCells() {
+    return this.cells;
+  }
+
+  /**
+   * Returns the number of longs needed to store a mask of the board.
+   *
+   * @return The number of longs per mask.
+   */
+  public int getWords() {
+    return this.words;
+  }
+
+  /**
+   * Returns the mask of all cells. Must not be modified.
+   *
+   * @return The mask of all cells, one long per 64 cells.
+   */
+  long[] getFull() {
+    return this.full;
+  }
+
+  /**
+   * Returns the mask of all cells except the first column. Must not be modified.
+   *
+   * @return The mask of all cells except the first column, one long per 64 cells.
+   */
+  long[] getNotFirstColumn() {
+    return this.notFirstColumn;
+  }
+
+  /**
+   * Returns the mask of all cells except the last column. Must not be modified.
+   *
+   * @return The mask of all cells except the last column, one long per 64 cells.
+   */
+  long[] getNotLastColumn() {
+    return this.notLastColumn;
+  }
+
+  /**
+   * Checks if a position lies on the board.
+   *
+   * @param row The row of the position.
+   * @param col The column of the position.
+   * @return true if the position lies on the board, false otherwise.
+   */
+  public boolean contains(int row, int col) {
+    return row >= 0 && row < this.rows && col >= 0 && col < this.columns;
+  }
+
+  /**
+   * Returns the index of a coordinate on the board.
+   *
+   * @param coordinate The coordinate.
+   * @return The index row * columns + col.
+   */
+  public int index(Coordinate coordinate) {
+    return coordinate.getRow() * this.columns + coordinate.getColumn();
+  }
+
+  /**
+   * Returns the coordinate of an index on the board.
+   *
+   * @param index The index.
+   * @return The coordinate of the index.
+   */
+  public Coordinate coordinate(int index) {
+    return new Coordinate(index / this.columns, index % this.columns);
+  }
+
+  /**
+   * Returns an empty map of the board: a LongBitMap for boards of up to 64 cells, a WideBitMap otherwise.
+   *
+   * @return An empty map of the board.
+   */
+  public BoardMap empty() {
+    return this.words == 1 ? new LongBitMap(this) : new WideBitMap(this);
+  }
+
+  /**
+   * Returns a map of the board containing only the specified coordinate.
+   *
+   * @param coordinate The coordinate.
+   * @return A map containing only the coordinate.
+   */
+  public BoardMap of(Coordinate coordinate) {
+    BoardMap map = this.empty();
+    map.update(coordinate);
+    return map;
+  }
+
+  /**
+   * Returns a random map of the board in which every cell is set independently with the specified density.
+   *
+   * @param density The density of the map.
+   * @param random  The random source to draw from.
+   * @return A random map of the board.
+   */
+  public BoardMap uniform(double density, RandomGenerator random) {
+    BoardMap map = this.empty();
+    for (int index = 0; index < this.cells; index++)
+      if (random.nextDouble() < density) map.update(this.coordinate(index));
+    return map;
+  }
+
+  /**
+   * Returns a string representation of the board.
+   *
+   * @return A string representation of the board.
+   */
+  public String toString() {
+    return this.rows + "x" + this.columns;
+  }
+}
@@ -0,0 +1,313 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A single component that paints a Board of any size, in place of a JPanel and a JLabel per cell.
+ * <p>
+ * Each cell is shown by its state, the bits GameView.AGENT, BREEZE, STENCH, GLITTER and LOADED, so there are only
+ * 32 different tiles. They are painted once per tile size into images, and painting the board only copies the images
+ * of the cells that intersect the clip. show() compares the new states with the shown ones and only repaints the
+ * cells that changed, so Swing coalesces the damaged regions of many updates into one paint.
+ * <p>
+ * The board fits the component until it is zoomed with the mouse wheel or panned by dragging;
+ * a double click fits it again. Every method must be called on the event dispatch thread.
+ */
+public class BoardComponent extends JComponent {
+  private static final long serialVersionUID = 1L;
+  private static final int STATES = 32, MIN_TILE = 4, MAX_TILE = 512;
+  private static final Color BACKGROUND = new Color(240, 240, 240), LOADED = new Color(200, 200, 200),
+      UNLOADED = new Color(50, 50, 50), AGENT = Color.BLUE, BREEZE = new Color(0, 160, 200),
+      STENCH = new Color(0, 140, 0), GLITTER = new Color(230, 180, 0);
+  private static final String[] LINES = {"You are here.", "You feel a breeze.", "You smell a stench.",
+      "You see glitter."};
+  private final Board board;
+  private final byte[] states;
+  private final BufferedImage[] tiles = new BufferedImage[STATES];
+  private int tileSize = 0; // the size of the images in tiles
+  private boolean fit = true;
+  private int tile, originX, originY; // only used when the board does not fit the component
+
+  /**
+   * Constructs a BoardComponent showing every cell of a board as unexplored.
+   *
+   * @param board The board to show.
+   */
+  public BoardComponent(Board board) {
+    this.board = board;
+    this.states = new byte[board.getCells()];
+    this.setOpaque(true);
+    this.setPreferredSize(new Dimension(800, 800));
+    MouseAdapter mouse = new MouseAdapter() {
+      private Point drag = null;
+
+      public void mousePressed(MouseEvent e) {
+        this.drag = e.getPoint();
+      }
+
+      public void mouseDragged(MouseEvent e) {
+        if (this.drag == null) return;
+        pan(e.getX() - this.drag.x, e.getY() - this.drag.y);
+        this.drag = e.getPoint();
+      }
+
+      public void mouseClicked(MouseEvent e) {
+        if (e.getClickCount() == 2) fit();
+      }
+
+      public void mouseWheelMoved(MouseWheelEvent e) {
+        zoom(e.getWheelRotation() < 0 ? 1.25 : 0.8, e.getX(), e.getY());
+      }
+    };
+    this.addMouseListener(mouse);
+    this.addMouseMotionListener(mouse);
+    this.addMouseWheelListener(mouse);
+  }
+
+  /**
+   * Shows new states of the cells, and repaints the cells whose state changed.
+   *
+   * @param states The state of every cell by board index (see Board.index), which is copied.
+   */
+  public void show(byte[] states) {
+    int tile = this.getTile();
+    for (int index = 0; index < this.states.length; index++) {
+      if (states[index] == this.states[index]) continue;
+      this.states[index] = states[index];
+      int row = index / this.board.getColumns(), col = index % this.board.getColumns();
+      this.repaint(this.getOriginX() + col * tile, this.getOriginY() + row * tile, tile, tile);
+    }
+  }
+
+  /**
+   * Computes the states of the cells of a board from its observed maps.
+   *
+   * @param loaded The loaded cells.
+   * @param breeze The cells where a breeze was observed.
+   * @param stench The cells where a stench was observed.
+   * @param gold   The cells where glitter was observed.
+   * @param agent  The board index of the agent.
+   * @param states The states to fill, by board index.
+   */
+  public static void states(BoardMap loaded, BoardMap breeze, BoardMap stench, BoardMap gold, int agent,
+                            byte[] states) {
+    Arrays.fill(states, (byte) 0);
+    loaded.forEach(index -> states[index] |= GameView.LOADED);
+    breeze.forEach(index -> states[index] |= GameView.BREEZE);
+    stench.forEach(index -> states[index] |= GameView.STENCH);
+    gold.forEach(index -> states[index] |= GameView.GLITTER);
+    states[agent] |= GameView.AGENT;
+  }
+
+  /**
+   * Returns the size of the tiles in pixels.
+   *
+   * @return The size of the tiles.
+   */
+  private int getTile() {
+    if (!this.fit) return this.tile;
+    int tile = Math.min(this.getWidth() / this.board.getColumns(), this.getHeight() / this.board.getRows());
+    return Math.max(MIN_TILE, Math.min(MAX_TILE, tile));
+  }
+
+  /**
+   * Returns the x coordinate of the left edge of the board.
+   *
+   * @return The x coordinate of the board.
+   */
+  private int getOriginX() {
+    return this.fit ? (this.getWidth() - this.getTile() * this.board.getColumns()) / 2 : this.originX;
+  }
+
+  /**
+   * Returns the y coordinate of the top edge of the board.
+   *
+   * @return The y coordinate of the board.
+   */
+  private int getOriginY() {
+    return this.fit ? (this.getHeight() - this.getTile() * this.board.getRows()) / 2 : this.originY;
+  }
+
+  /**
+   * Stops fitting the board to the component, keeping its current position and size.
+   */
+  private void unfit() {
+    if (!this.fit) return;
+    this.tile = this.getTile();
+    this.originX = this.getOriginX();
+    this.originY = this.getOriginY();
+    this.fit = false;
+  }
+
+  /**
+   * Fits the board to the component again.
+   */
+  private void fit() {
+    this.fit = true;
+    this.repaint();
+  }
+
+  /**
+   * Moves the board.
+   *
+   * @param dx The horizontal distance in pixels.
+   * @param dy The vertical distance in pixels.
+   */
+  private void pan(int dx, int dy) {
+    this.unfit();
+    this.originX += dx;
+    this.originY += dy;
+    this.repaint();
+  }
+
+  /**
+   * Scales the board around a point, which stays over the same spot of the board.
+   *
+   * @param factor The scale factor.
+   * @param x      The x coordinate of the point.
+   * @param y      The y coordinate of the point.
+   */
+  private void zoom(double factor, int x, int y) {
+    this.unfit();
+    int tile = (int) Math.round(this.tile * factor);
+    if (tile == this.tile) tile += factor > 1 ? 1 : -1;
+    tile = Math.max(MIN_TILE, Math.min(MAX_TILE, tile));
+    this.originX = x - (int) Math.round((x - this.originX) * (double) tile / this.tile);
+    this.originY = y - (int) Math.round((y - this.originY) * (double) tile / this.tile);
+    this.tile = tile;
+    this.repaint();
+  }
+
+  /**
+   * Paints the cells that intersect the clip from the cached tiles.
+   *
+   * @param g The graphics to paint with.
+   */
+  protected void paintComponent(Graphics g) {
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) clip = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+    g.setColor(BACKGROUND);
+    g.fillRect(clip.x, clip.y, clip.width, clip.height);
+    int tile = this.getTile(), x = this.getOriginX(), y = this.getOriginY(), columns = this.board.getColumns();
+    if (tile != this.tileSize) {
+      Arrays.fill(this.tiles, null);
+      this.tileSize = tile;
+    }
+    int firstRow = Math.max(0, Math.floorDiv(clip.y - y, tile));
+    int lastRow = Math.min(this.board.getRows() - 1, Math.floorDiv(clip.y + clip.height - 1 - y, tile));
+    int firstCol = Math.max(0, Math.floorDiv(clip.x - x, tile));
+    int lastCol = Math.min(columns - 1, Math.floorDiv(clip.x + clip.width - 1 - x, tile));
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int col = firstCol; col <= lastCol; col++) {
+        int state = this.states[row * columns + col];
+        if (this.tiles[state] == null) this.tiles[state] = paintTile(state, tile);
+        g.drawImage(this.tiles[state], x + col * tile, y + row * tile, null);
+      }
+    }
+  }
+
+  /**
+   * Paints the tile of a state. Large tiles show the text of GameView, small ones show colored marks:
+   * a circle for the agent, and a square in a corner for each percept.
+   *
+   * @param state The state of the cell.
+   * @param size  The size of the tile in pixels.
+   * @return The tile.
+   */
+  private static BufferedImage paintTile(int state, int size) {
+    BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    int border = Math.max(1, size / 32);
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, size, size);
+    g.setColor((state & GameView.LOADED) != 0 ? LOADED : UNLOADED);
+    g.fillRect(border, border, size - 2 * border, size - 2 * border);
+    if (size >= 128) {
+      g.setColor(Color.RED);
+      g.setFont(new Font("Arial", Font.BOLD, size / 12));
+      FontMetrics metrics = g.getFontMetrics();
+      int lines = Integer.bitCount(state & 15), y = (size - lines * metrics.getHeight()) / 2 + metrics.getAscent();
+      for (int bit = 0; bit < LINES.length; bit++) {
+        if ((state >> bit & 1) == 0) continue;
+        g.drawString(LINES[bit], (size - metrics.stringWidth(LINES[bit])) / 2, y);
+        y += metrics.getHeight();
+      }
+    } else {
+      int mark = Math.max(1, size / 5), inset = border + Math.max(1, size / 16);
+      if ((state & GameView.BREEZE) != 0) {
+        g.setColor(BREEZE);
+        g.fillRect(inset, inset, mark, mark);
+      }
+      if ((state & GameView.STENCH) != 0) {
+        g.setColor(STENCH);
+        g.fillRect(size - inset - mark, inset, mark, mark);
+      }
+      if ((state & GameView.GLITTER) != 0) {
+        g.setColor(GLITTER);
+        g.fillRect(inset, size - inset - mark, mark, mark);
+      }
+      if ((state & GameView.AGENT) != 0) {
+        g.setColor(AGENT);
+        g.fillOval(size / 4, size / 4, size / 2, size / 2);
+      }
+    }
+    g.dispose();
+    return image;
+  }
+
+  /**
+   * Main method to watch a BoardExploreBot play large caves, as a demonstration of high-speed playback.
+   * A timer lets the bot act and shows the new states about 60 times per second, and starts a new level when a game
+   * is over; the title shows the frames actually painted per second.
+   *
+   * @param args Command line arguments: the size of the square board (default 32) and the number of steps per frame
+   *             (default 10).
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    int steps = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    SwingUtilities.invokeLater(() -> {
+      Board board = new Board(size, size);
+      SplittableRandom random = new SplittableRandom();
+      BoardLevel[] level = {BoardLevel.generateLevel(board, random)};
+      BoardExploreBot[] bot = {new BoardExploreBot(level[0])};
+      byte[] states = new byte[board.getCells()];
+      long[] frames = {0, System.nanoTime()};
+      JFrame frame = new JFrame();
+      BoardComponent component = new BoardComponent(board) {
+        protected void paintComponent(Graphics g) {
+          super.paintComponent(g);
+          frames[0]++;
+        }
+      };
+      frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+      frame.add(component);
+      frame.pack();
+      frame.setLocationRelativeTo(null);
+      frame.setVisible(true);
+      new Timer(16, e -> {
+        for (int step = 0; step < steps; step++) {
+          if (bot[0].action()) continue;
+          level[0] = BoardLevel.generateLevel(board, random);
+          bot[0] = new BoardExploreBot(level[0]);
+        }
+        states(bot[0].getLoaded(), bot[0].getBreeze(), bot[0].getStench(), bot[0].getGold(),
+            board.index(level[0].getAgentCoord()), states);
+        component.show(states);
+        long now = System.nanoTime();
+        if (now - frames[1] >= 1000000000L) {
+          frame.setTitle(String.format("%dx%d cave: %d frames/sec", size, size, frames[0]));
+          frames[0] = 0;
+          frames[1] = now;
+        }
+      }).start();
+    });
+  }
+}
@@ -0,0 +1,146 @@
+import java.util.SplittableRandom;
+
+/**
+ * A bot that plays a BoardLevel of any size by exploring safe cells only, the rule SafeExploreBot starts from:
+ * a cell is safe once it is loaded or next to a loaded cell without a breeze and a stench.
+ * It moves towards the nearest safe cell not loaded yet, brings the gold back once it has it, and gives up at the
+ * start when no safe cell is left to explore. Paths are found with BFS layers of BoardMaps, so a step costs a few
+ * word operations per cell of distance, also on caves far larger than 4x4.
+ */
+public class BoardExploreBot {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private final BoardLevel level;
+  private final BoardMap loaded, breeze, stench, gold;
+  private final Coordinate origin = new Coordinate();
+
+  /**
+   * Constructs a BoardExploreBot playing a level, and observes the start.
+   *
+   * @param level The level to play.
+   */
+  public BoardExploreBot(BoardLevel level) {
+    Board board = level.getBoard();
+    this.level = level;
+    this.loaded = board.empty();
+    this.breeze = board.empty();
+    this.stench = board.empty();
+    this.gold = board.empty();
+    this.observe();
+  }
+
+  /**
+   * Records what the agent detects on its cell.
+   */
+  private void observe() {
+    Coordinate agent = this.level.getAgentCoord();
+    this.loaded.update(agent);
+    if (this.level.detectsBreeze()) this.breeze.update(agent);
+    if (this.level.detectsStench()) this.stench.update(agent);
+    if (this.level.detectsGlitter()) this.gold.update(agent);
+  }
+
+  /**
+   * Makes the bot take one step.
+   *
+   * @return true if the bot moved, false if the game has ended or the bot gave up.
+   */
+  public boolean action() {
+    if (this.level.hasEnded()) return false;
+    BoardMap safe = this.loaded.or(this.loaded.subtract(this.breeze.or(this.stench)).getNeighbors());
+    Coordinate agent = this.level.getAgentCoord();
+    Direction direction = this.level.hasGold() ? step(agent, safe.subtract(this.loaded), safe) : null;
+    if (direction == null) direction = step(agent, this.level.getBoard().of(this.origin), safe);
+    if (direction == null || !this.level.move(direction)) return false;
+    this.observe();
+    return true;
+  }
+
+  /**
+   * Finds the first step of a shortest safe path to the nearest target, by expanding layers from the targets.
+   *
+   * @param from    The coordinate of the agent.
+   * @param targets The target cells, which must be safe.
+   * @param safe    The safe cells.
+   * @return The direction of the first step, or null if no target can be reached or the agent is on one.
+   */
+  public static Direction step(Coordinate from, BoardMap targets, BoardMap safe) {
+    Board board = safe.getBoard();
+    if (targets.get(from)) return null;
+    BoardMap visited = targets.copy(), layer = targets;
+    while (!layer.isEmpty()) {
+      for (Direction direction : DIRECTIONS) {
+        Coordinate next = from.copy();
+        if (next.move(direction, board) && layer.get(next)) return direction;
+      }
+      layer = layer.getNeighbors().and(safe).subtract(visited);
+      visited.update(layer);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the loaded cells.
+   *
+   * @return The map of the loaded cells.
+   */
+  public BoardMap getLoaded() {
+    return this.loaded;
+  }
+
+  /**
+   * Returns the cells where a breeze was detected.
+   *
+   * @return The map of the breezes.
+   */
+  public BoardMap getBreeze() {
+    return this.breeze;
+  }
+
+  /**
+   * Returns the cells where a stench was detected.
+   *
+   * @return The map of the stenches.
+   */
+  public BoardMap getStench() {
+    return this.stench;
+  }
+
+  /**
+   * Returns the cells where glitter was detected.
+   *
+   * @return The map of the glitter.
+   */
+  public BoardMap getGold() {
+    return this.gold;
+  }
+
+  /**
+   * Main method to stress-test the bot on large caves from the command line.
+   *
+   * @param args Command line arguments: the size of the square board (default 16), the number of games
+   *             (default 10000) and the seed of the levels (default 0).
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    Board board = new Board(size, size);
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+    SplittableRandom random = new SplittableRandom(args.length > 2 ? Long.parseLong(args[2]) : 0);
+    int[] ends = new int[End.values().length];
+    int gaveUp = 0;
+    long score = 0, steps = 0, start = System.nanoTime();
+    for (int game = 0; game < games; game++) {
+      BoardLevel level = BoardLevel.generateLevel(board, random);
+      BoardExploreBot bot = new BoardExploreBot(level);
+      while (bot.action()) steps++;
+      if (level.hasEnded()) ends[level.endType().ordinal()]++;
+      else gaveUp++;
+      score += level.getScore();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Board: %s, games: %d%n", board, games);
+    System.out.printf("Mean score: %.3f%n", (double) score / games);
+    for (End end : End.values()) System.out.printf("%s: %d%n", end, ends[end.ordinal()]);
+    System.out.printf("Gave up: %d%n", gaveUp);
+    System.out.printf("Steps/sec: %.1f%n", steps / seconds);
+  }
+}
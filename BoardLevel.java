@@ -0,0 +1,154 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A level on a Board of any size, with the rules of Level: the agent starts in the top left corner,
+ * pits generate independently with probability 0.2 elsewhere, and the Wumpus and the gold lie on random empty cells.
+ * The maps are BoardMaps and cells are compared by row and column, so the level is not bound to Board.STANDARD;
+ * the 4x4 game keeps using Level, whose BitMaps the bots and the observed state IDs depend on.
+ */
+class BoardLevel implements Interface {
+  private final Board board;
+  private final BoardMap pitMap, breezeMap, stenchMap;
+  private final Coordinate wumpusCoord, goldCoord, agentCoord = new Coordinate();
+  private boolean hasWumpus = true, hasArrow = true, hasGold = true, hasEnded = false;
+  private int score = 0;
+  private End endType = null;
+
+  /**
+   * Constructs a BoardLevel with the specified parameters.
+   *
+   * @param pitMap      The map of the pits, whose board is the board of the level.
+   * @param wumpusCoord The coordinate of the Wumpus.
+   * @param goldCoord   The coordinate of the gold.
+   */
+  public BoardLevel(BoardMap pitMap, Coordinate wumpusCoord, Coordinate goldCoord) {
+    this.board = pitMap.getBoard();
+    this.pitMap = pitMap;
+    this.wumpusCoord = wumpusCoord;
+    this.goldCoord = goldCoord;
+    this.breezeMap = pitMap.getNeighbors();
+    this.stenchMap = this.board.of(wumpusCoord).getNeighbors();
+  }
+
+  /**
+   * Generates a random level on a board. Retries while fewer than two cells are free for the Wumpus and the gold.
+   *
+   * @param board  The board, with at least 3 cells.
+   * @param random The random source to draw from.
+   * @return A new BoardLevel object.
+   */
+  public static BoardLevel generateLevel(Board board, RandomGenerator random) {
+    if (board.getCells() < 3) throw new IllegalArgumentException("Board too small: " + board + ". ");
+    Coordinate origin = new Coordinate();
+    BoardMap pitMap = board.uniform(0.2, random);
+    pitMap.remove(origin);
+    if (board.getCells() - pitMap.size() < 3) return generateLevel(board, random); // too many pits, retry
+    BoardMap occupied = pitMap.copy();
+    occupied.update(origin);
+    Coordinate wumpusCoord = randEmpty(occupied, random);
+    occupied.update(wumpusCoord);
+    return new BoardLevel(pitMap, wumpusCoord, randEmpty(occupied, random));
+  }
+
+  /**
+   * Returns a random empty coordinate of a map.
+   *
+   * @param occupied The map of the occupied coordinates.
+   * @param random   The random source to draw from.
+   * @return A random empty coordinate.
+   */
+  private static Coordinate randEmpty(BoardMap occupied, RandomGenerator random) {
+    Board board = occupied.getBoard();
+    int index = random.nextInt(board.getCells());
+    while (occupied.get(index)) index = random.nextInt(board.getCells());
+    return board.coordinate(index);
+  }
+
+  /**
+   * Returns the board of the level.
+   *
+   * @return The board.
+   */
+  public Board getBoard() {
+    return this.board;
+  }
+
+  /**
+   * Makes the agent move in the specified direction, scoring as Level.move does.
+   *
+   * @param direction the direction to move in.
+   * @return true if the move was successful, false otherwise.
+   */
+  public boolean move(Direction direction) {
+    if (this.hasEnded || !this.agentCoord.move(direction, this.board)) return false;
+    this.score -= 1;
+    if (this.pitMap.get(this.agentCoord)) {
+      this.score -= 1000;
+      this.hasEnded = true;
+      this.endType = End.PIT;
+    }
+    if (this.agentCoord.equals(this.wumpusCoord) && this.hasWumpus) {
+      this.score -= 1000;
+      this.hasEnded = true;
+      this.endType = End.WUMPUS;
+    }
+    if (this.agentCoord.equals(this.goldCoord) && this.hasGold) this.hasGold = false;
+    if (this.agentCoord.getRow() == 0 && this.agentCoord.getColumn() == 0 && !this.hasGold) {
+      this.score += 1000;
+      this.hasEnded = true;
+      this.endType = End.WIN;
+    }
+    return true;
+  }
+
+  public boolean shoot(Direction direction) {
+    if (this.hasEnded || !this.hasArrow) return false;
+    this.score -= 10;
+    this.hasArrow = false;
+    Coordinate arrow = this.agentCoord.copy();
+    while (arrow.move(direction, this.board))
+      if (arrow.equals(this.wumpusCoord))
+        this.hasWumpus = false;
+    return true;
+  }
+
+  public int getScore() {
+    return this.score;
+  }
+
+  public boolean hasWumpus() {
+    return this.hasWumpus;
+  }
+
+  public boolean hasArrow() {
+    return this.hasArrow;
+  }
+
+  public boolean hasGold() {
+    return this.hasGold;
+  }
+
+  public boolean detectsBreeze() {
+    return this.breezeMap.get(this.agentCoord);
+  }
+
+  public boolean detectsStench() {
+    return this.stenchMap.get(this.agentCoord);
+  }
+
+  public boolean detectsGlitter() {
+    return this.goldCoord.equals(this.agentCoord);
+  }
+
+  public boolean hasEnded() {
+    return this.hasEnded;
+  }
+
+  public End endType() {
+    return this.endType;
+  }
+
+  public Coordinate getAgentCoord() {
+    return this.agentCoord;
+  }
+}
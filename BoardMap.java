@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * Represents a bitmap of the cells of a Board of arbitrary size, with the same algebra as BitMap.
+ * Both operands of a binary operation must belong to the same Board.
+ * Cells are addressed by coordinate or by their index on the board (Board.index).
+ */
+public interface BoardMap {
+  /**
+   * Returns the board this map belongs to.
+   *
+   * @return The board.
+   */
+  Board getBoard();
+
+  /**
+   * Checks if a specific coordinate is set.
+   *
+   * @param coordinate The coordinate to check.
+   * @return true if the coordinate is set, false otherwise.
+   */
+  boolean get(Coordinate coordinate);
+
+  /**
+   * Checks if a specific index is set.
+   *
+   * @param index The index to check.
+   * @return true if the index is set, false otherwise.
+   */
+  boolean get(int index);
+
+  /**
+   * Sets a single coordinate.
+   *
+   * @param coordinate The coordinate to set.
+   */
+  void update(Coordinate coordinate);
+
+  /**
+   * Updates with the Bitwise OR of this map with another map.
+   *
+   * @param other The other map to OR with.
+   */
+  void update(BoardMap other);
+
+  /**
+   * Clears a single coordinate.
+   *
+   * @param coordinate The coordinate to clear.
+   */
+  void remove(Coordinate coordinate);
+
+  /**
+   * Updates with filtering this map based on another map.
+   *
+   * @param other The other map to filter against.
+   */
+  void filter(BoardMap other);
+
+  /**
+   * Computes the Bitwise AND of this map with another map.
+   *
+   * @param other The other map to AND with.
+   * @return A new map representing the result of the AND operation.
+   */
+  BoardMap and(BoardMap other);
+
+  /**
+   * Computes the Bitwise OR of this map with another map.
+   *
+   * @param other The other map to OR with.
+   * @return A new map representing the result of the OR operation.
+   */
+  BoardMap or(BoardMap other);
+
+  /**
+   * Computes the Bitwise REMOVE of this map with another map. a REMOVE b = a &amp; ~b.
+   *
+   * @param other The other map to REMOVE with.
+   * @return A new map representing the result of the REMOVE operation.
+   */
+  BoardMap subtract(BoardMap other);
+
+  /**
+   * Computes the Bitwise NOT of this map, restricted to the board.
+   *
+   * @return A new map representing the result of the NOT operation.
+   */
+  BoardMap not();
+
+  /**
+   * Outputs a map featuring all the orthogonal neighbors of all the cells in this map.
+   *
+   * @return A new map representing the neighbors of this map.
+   */
+  BoardMap getNeighbors();
+
+  /**
+   * Returns the number of cells set.
+   *
+   * @return The number of cells set.
+   */
+  int size();
+
+  /**
+   * Checks if no cell is set.
+   *
+   * @return true if no cell is set, false otherwise.
+   */
+  boolean isEmpty();
+
+  /**
+   * Performs the given action on the index of every cell set, in ascending order.
+   *
+   * @param action The action to perform on every index.
+   */
+  void forEach(IntConsumer action);
+
+  /**
+   * Returns a copy of this map.
+   *
+   * @return A new map with the same cells.
+   */
+  BoardMap copy();
+
+  /**
+   * Returns an ArrayList of the coordinates set.
+   *
+   * @return An ArrayList of the coordinates set.
+   */
+  default ArrayList<Coordinate> asCoordinates() {
+    ArrayList<Coordinate> coordinates = new ArrayList<>(this.size());
+    this.forEach(index -> coordinates.add(this.getBoard().coordinate(index)));
+    return coordinates;
+  }
+
+  /**
+   * Returns a string representation of the map. Cells are represented as the specified strings for off and on.
+   *
+   * @param off The string representation for off cells.
+   * @param on  The string representation for on cells.
+   * @return The string representation of the map.
+   */
+  default String toString(String off, String on) {
+    StringBuilder string = new StringBuilder();
+    Board board = this.getBoard();
+    for (int row = 0; row < board.getRows(); row++) {
+      for (int col = 0; col < board.getColumns(); col++)
+        string.append(this.get(row * board.getColumns() + col) ? on : off).append(" ");
+      string.append("\n");
+    }
+    return string.toString();
+  }
+}
@@ -1,3 +1,5 @@
+import java.util.random.RandomGenerator;
+
 /**
  * This class represents the current BotInterface in use for the GUI.
  */
@@ -8,4 +10,18 @@ public class Bot extends SafeExploreBot {
   public Bot(BackEnd backEnd) {
     super(backEnd);
   }
+
+  /**
+   * Constructs a Bot with the specified BackEnd and random source.
+   */
+  public Bot(BackEnd backEnd, RandomGenerator random) {
+    super(backEnd, random);
+  }
+
+  /**
+   * Constructs a Bot with the specified BackEnd, random source and belief cache.
+   */
+  public Bot(BackEnd backEnd, RandomGenerator random, BeliefCache cache) {
+    super(backEnd, random, cache);
+  }
 }
@@ -1,7 +1,11 @@
 import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a coordinate in a 4x4 grid.
+ * The methods without a Board are bound to Board.STANDARD, and hashCode() is the index in the BitMap layout;
+ * use Board.index and move(Direction, Board) for grids of other sizes.
  */
 public class Coordinate {
   private int row, col;
@@ -72,20 +76,39 @@ public class Coordinate {
   }
 
   /**
-   * Returns a uniformly random coordinate in the grid.
+   * Returns a uniformly random coordinate in the grid using the random source of the current thread.
    *
    * @return A random coordinate in the grid.
    */
   public static Coordinate random() {
-    return new Coordinate((int) (Math.random() * 4), (int) (Math.random() * 4));
+    return random(ThreadLocalRandom.current());
   }
 
   /**
-   * Randomize the coordinate to a random position in the grid.
+   * Returns a uniformly random coordinate in the grid.
+   *
+   * @param random The random source to draw from.
+   * @return A random coordinate in the grid.
+   */
+  public static Coordinate random(RandomGenerator random) {
+    return new Coordinate(random.nextInt(4), random.nextInt(4));
+  }
+
+  /**
+   * Randomize the coordinate to a random position in the grid using the random source of the current thread.
    */
   public void randomize() {
-    this.row = (int) (Math.random() * 4);
-    this.col = (int) (Math.random() * 4);
+    this.randomize(ThreadLocalRandom.current());
+  }
+
+  /**
+   * Randomize the coordinate to a random position in the grid.
+   *
+   * @param random The random source to draw from.
+   */
+  public void randomize(RandomGenerator random) {
+    this.row = random.nextInt(4);
+    this.col = random.nextInt(4);
   }
 
   /**
@@ -123,7 +146,7 @@ public class Coordinate {
    * @return true if the move was successful, false if it hit a wall.
    */
   public boolean moveDown() {
-    if (this.row == 3) return false; // out of bounds
+    if (this.row == Board.STANDARD.getRows() - 1) return false; // out of bounds
     this.row++;
     return true;
   }
@@ -145,7 +168,7 @@ public class Coordinate {
    * @return true if the move was successful, false if it hit a wall.
    */
   public boolean moveRight() {
-    if (this.col == 3) return false; // out of bounds
+    if (this.col == Board.STANDARD.getColumns() - 1) return false; // out of bounds
     this.col++;
     return true;
   }
@@ -171,6 +194,37 @@ public class Coordinate {
     }
   }
 
+  /**
+   * Moves the coordinate in the specified direction on a grid of arbitrary size.
+   *
+   * @param direction The direction to move in.
+   * @param board     The grid to move on.
+   * @return true if the move was successful, false if it hit a wall.
+   */
+  public boolean move(Direction direction, Board board) {
+    int row = this.row, col = this.col;
+    switch (direction) {
+      case UP:
+        row--;
+        break;
+      case DOWN:
+        row++;
+        break;
+      case LEFT:
+        col--;
+        break;
+      case RIGHT:
+        col++;
+        break;
+      default:
+        throw new IllegalArgumentException("Unidentifiable direction - what the fuck? ");
+    }
+    if (!board.contains(row, col)) return false; // out of bounds
+    this.row = row;
+    this.col = col;
+    return true;
+  }
+
   /**
    * Returns a string representation of the coordinate.
    *
@@ -201,17 +255,18 @@ public class Coordinate {
   }
 
   /**
-   * Checks if two Coordinates are equal based on their hash codes.
+   * Checks if two Coordinates are equal based on their rows and columns.
+   * The hash codes are not compared, since they collide on boards wider than 5 columns.
    *
    * @param other The other object to compare with.
    * @return true if the Coordinates are equal, false otherwise.
    */
   public boolean equals(Coordinate other) {
-    return this.hashCode() == other.hashCode();
+    return this.row == other.row && this.col == other.col;
   }
 
   /**
-   * Checks if two Coordinates are equal based on their hash codes.
+   * Checks if two Coordinates are equal based on their rows and columns.
    *
    * @param other The other object to compare with.
    * @return true if the Coordinates are equal, false otherwise.
@@ -1,3 +1,6 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * Enumerates the orthogonal directions.
  */
@@ -7,13 +10,24 @@ public enum Direction {
   LEFT,
   RIGHT;
 
+  private static final Direction[] DIRECTIONS = Direction.values();
+
   /**
-   * Returns a random direction.
+   * Returns a random direction using the random source of the current thread.
    *
    * @return A random direction.
    */
   public static Direction random() {
-    Direction[] directions = Direction.values();
-    return directions[(int) (Math.random() * directions.length)];
+    return random(ThreadLocalRandom.current());
+  }
+
+  /**
+   * Returns a random direction.
+   *
+   * @param random The random source to draw from.
+   * @return A random direction.
+   */
+  public static Direction random(RandomGenerator random) {
+    return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
   }
 }
@@ -3,20 +3,36 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * GUI class for the Wumpus World game.
  * This class creates a graphical user interface for the game, allowing users to interact with it.
  * It includes buttons for moving and shooting, as well as a display for the game state.
+ * Bot games run on a worker thread, which publishes a GameView after every action; a timer on the event dispatch
+ * thread renders the latest view at most 60 times per second, so views published in between are skipped.
+ * In turbo mode, the worker plays games back to back and only publishes the last view of each game.
  */
 public class GUI extends JFrame {
   private BackEnd backEnd = new BackEnd();
   private BotInterface bot = new Bot(this.backEnd);
   private final JLabel statusLabel = new JLabel("Wumpus World", SwingConstants.LEFT);
-  private final JPanel[][] panels = new JPanel[4][4];
-  private final JLabel[][] labels = new JLabel[4][4];
-  private int games = 0;
-  private double total = 0, average = 0;
+  private final Board board = Board.STANDARD;
+  private final BoardComponent display = new BoardComponent(this.board);
+  private final byte[] states = new byte[this.board.getCells()];
+  private final Statistics.Collector statistics = new Statistics().collector("bot");
+  private int steps = 0; // the actions of the current game, counted where they are taken
+  private static final int FRAME_MILLIS = 16; // about 60 frames per second
+  private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "bot-game");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicReference<GameView> pending = new AtomicReference<>();
+  private volatile boolean turbo = false;
+  private boolean busy = false; // whether the worker is playing, in which case the game shown is not modified
 
   /**
    * Action to reset the game.
@@ -24,9 +40,11 @@ public class GUI extends JFrame {
    */
   private final Action reset = new AbstractAction() {
     public void actionPerformed(ActionEvent e) {
+      if (busy) return;
       updateCounters();
       backEnd = new BackEnd();
       bot = new Bot(backEnd);
+      steps = 0;
       backEnd.updateObservations();
       updateLabels();
     }
@@ -39,8 +57,10 @@ public class GUI extends JFrame {
    */
   private final Action botAction = new AbstractAction() {
     public void actionPerformed(ActionEvent e) {
+      if (busy) return;
       if (backEnd.getLevel().hasEnded()) reset.actionPerformed(e);
       bot.action();
+      steps++;
       backEnd.updateObservations();
       updateLabels();
     }
@@ -54,6 +74,10 @@ public class GUI extends JFrame {
     this.backEnd.updateObservations();
     this.setupGUI();
     this.updateLabels();
+    new Timer(FRAME_MILLIS, e -> {
+      GameView view = this.pending.getAndSet(null);
+      if (view != null) this.render(view);
+    }).start();
   }
 
   /**
@@ -100,6 +124,8 @@ public class GUI extends JFrame {
     botButton.setFont(new Font("Arial", Font.BOLD, 18));
     botButton.setForeground(Color.BLACK);
     botButton.addActionListener(e -> {
+      if (this.busy) return;
+      if (!this.backEnd.getLevel().hasEnded()) this.steps++;
       bot.action();
       this.backEnd.updateObservations();
       this.updateLabels();
@@ -109,19 +135,87 @@ public class GUI extends JFrame {
 
   /**
    * Starts a bot game.
-   * This method initializes the bot and runs the game until it ends.
+   * This method hands the game to the worker, which plays it until it ends (or games until turbo mode is off).
    */
   private void botGame() {
+    if (this.busy) return;
     this.updateCounters();
-    this.backEnd = new BackEnd();
-    this.bot = new Bot(backEnd);
-    this.backEnd.updateObservations();
+    this.busy = true;
+    this.worker.execute(this::playBotGames);
+  }
+
+  /**
+   * Plays bot games on the worker.
+   * This method plays a game, or games until turbo mode is off, and publishes their views for the timer.
+   * The games are added to the statistics, except the last one, which is handed to the event dispatch thread.
+   */
+  private void playBotGames() {
+    BackEnd backEnd = null;
+    BotInterface bot = null;
+    int steps = 0;
+    do {
+      if (backEnd != null) this.statistics.add(backEnd.getLevel(), steps);
+      boolean turbo = this.turbo;
+      backEnd = new BackEnd();
+      bot = new Bot(backEnd);
+      backEnd.updateObservations();
+      steps = 0;
+      if (!turbo) this.pending.set(new GameView(backEnd));
+      while (!backEnd.getLevel().hasEnded()) {
+        bot.action();
+        backEnd.updateObservations();
+        steps++;
+        if (!turbo) this.pending.set(new GameView(backEnd));
+      }
+      if (turbo) this.pending.set(new GameView(backEnd));
+    } while (this.turbo);
+    BackEnd last = backEnd;
+    BotInterface lastBot = bot;
+    int lastSteps = steps;
+    SwingUtilities.invokeLater(() -> this.finishBotGames(last, lastBot, lastSteps));
+  }
+
+  /**
+   * Takes back the last game of the worker.
+   * This method shows the game, and starts the worker again if turbo mode was turned on in the meantime.
+   *
+   * @param backEnd The BackEnd of the last game.
+   * @param bot     The bot of the last game.
+   * @param steps   The number of actions of the last game.
+   */
+  private void finishBotGames(BackEnd backEnd, BotInterface bot, int steps) {
+    this.backEnd = backEnd;
+    this.bot = bot;
+    this.steps = steps;
+    this.busy = false;
+    this.pending.set(null);
     this.updateLabels();
-    while (!this.backEnd.getLevel().hasEnded()) {
-      this.bot.action();
-      this.backEnd.updateObservations();
-      this.updateLabels();
-    }
+    if (this.turbo) this.botGame();
+  }
+
+  /**
+   * Turns turbo mode on or off.
+   * In turbo mode, bot games are played back to back until it is turned off.
+   *
+   * @param turbo Whether turbo mode is on.
+   */
+  private void setTurbo(boolean turbo) {
+    this.turbo = turbo;
+    if (turbo) this.botGame();
+  }
+
+  /**
+   * Creates a toggle button for turbo mode.
+   * This button allows the user to let the bot play games back to back.
+   *
+   * @return The created turbo button.
+   */
+  private JToggleButton turboButton() {
+    JToggleButton turboButton = new JToggleButton("Turbo");
+    turboButton.setFont(new Font("Arial", Font.BOLD, 18));
+    turboButton.setForeground(Color.BLACK);
+    turboButton.addActionListener(e -> this.setTurbo(turboButton.isSelected()));
+    return turboButton;
   }
 
   /**
@@ -140,7 +234,7 @@ public class GUI extends JFrame {
 
   /**
    * Creates the top bar of the GUI.
-   * This method initializes the top bar with a title label, reset button, and bot button.
+   * This method initializes the top bar with a title label, reset button, bot buttons, and turbo button.
    *
    * @return The created top bar panel.
    */
@@ -152,39 +246,22 @@ public class GUI extends JFrame {
     bar.add(this.createReset());
     bar.add(this.botButton());
     bar.add(this.botGameButton());
+    bar.add(this.turboButton());
     return bar;
   }
 
   /**
    * Initializes the display panel for the game.
-   * This method creates a grid layout to represent the game board and initializes the cell panels.
+   * This method wraps the board component, which paints every cell of the board.
    *
    * @return The initialized display panel.
    */
   private JPanel initializeDisplay() {
-    JPanel display = new JPanel(new GridLayout(4, 4, 5, 5));
-    display.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-    display.setBackground(new Color(240, 240, 240));
-
-    for (int i = 0; i < 4; i++) {
-      for (int j = 0; j < 4; j++) {
-        JPanel cellPanel = new JPanel(new BorderLayout());
-        cellPanel.setBackground(new Color(200, 200, 200));
-        cellPanel.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.WHITE, 2),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-
-        JLabel label = new JLabel("Unexplored", SwingConstants.CENTER);
-        label.setFont(new Font("Arial", Font.BOLD, 18));
-        label.setForeground(Color.RED);
-        cellPanel.add(label, BorderLayout.CENTER);
-        labels[i][j] = label;
-        panels[i][j] = cellPanel;
-        display.add(cellPanel);
-      }
-    }
-    return display;
+    JPanel panel = new JPanel(new BorderLayout());
+    panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+    panel.setBackground(new Color(240, 240, 240));
+    panel.add(this.display, BorderLayout.CENTER);
+    return panel;
   }
 
   /**
@@ -322,6 +399,8 @@ public class GUI extends JFrame {
    * @param direction The direction to move in.
    */
   private void handleMove(String direction) {
+    if (this.busy) return;
+    if (!this.backEnd.getLevel().hasEnded()) this.steps++;
     this.backEnd.getLevel().move(getDirection(direction));
     this.backEnd.updateObservations();
     this.updateLabels();
@@ -334,6 +413,8 @@ public class GUI extends JFrame {
    * @param direction The direction to shoot in.
    */
   private void handleShoot(String direction) {
+    if (this.busy) return;
+    if (!this.backEnd.getLevel().hasEnded()) this.steps++;
     this.backEnd.getLevel().shoot(getDirection(direction));
     this.backEnd.updateObservations();
     this.updateLabels();
@@ -341,48 +422,49 @@ public class GUI extends JFrame {
 
   /**
    * Updates the game counters.
-   * This method increments the game count and updates the average score if the game has ended.
+   * This method adds the game to the statistics if it has ended.
    */
   private void updateCounters() {
-    if (this.backEnd.getLevel().hasEnded()) {
-      this.games++;
-      this.total += backEnd.getLevel().getScore();
-      this.average = total / games;
-    }
+    if (this.backEnd.getLevel().hasEnded()) this.statistics.add(this.backEnd.getLevel(), this.steps);
   }
 
   /**
    * Gets the title label for the GUI.
    * This method constructs a string representation of the game state to be displayed in the title label.
-   * This includes general information about the game, the average score, and the last move made.
+   * This includes general information about the game, the live average score, and the last move made.
    *
+   * @param view The view of the game.
    * @return The constructed title label string.
    */
-  private String getTitleLabel() {
-    return "<html>" + this.backEnd.getGeneralInfo() +
-        "<br/> Average Score: " + this.average +
+  private String getTitleLabel(GameView view) {
+    Statistics.Snapshot snapshot = this.statistics.snapshot();
+    return "<html>" + view.getGeneralInfo() +
+        "<br/> Average Score: " + snapshot.getMean() + " (" + snapshot.getGames() + " games)" +
         "<br/> Last Move: " +
-        this.backEnd.getLevel().getActionType() +
+        view.getActionType() +
         " " +
-        this.backEnd.getLevel().getActionDirection() +
+        view.getActionDirection() +
         "</html>";
   }
 
   /**
    * Updates the labels and colors of the cells in the GUI.
    * This method refreshes the display to reflect the current game state.
-   * It updates the text and background color of each cell based on its status.
    */
   private void updateLabels() {
-    for (int i = 0; i < 4; i++) {
-      for (int j = 0; j < 4; j++) {
-        String labelText = this.backEnd.getCellInfo(new Coordinate(i, j));
-        this.labels[i][j].setText(labelText);
-        boolean loaded = this.backEnd.getLoaded().get(new Coordinate(i, j));
-        this.panels[i][j].setBackground(loaded ? new Color(200, 200, 200) : new Color(50, 50, 50));
-      }
-    }
-    this.statusLabel.setText(this.getTitleLabel());
+    this.render(new GameView(this.backEnd));
+  }
+
+  /**
+   * Renders a view of the game.
+   * This method passes the states of the cells to the board component, which only repaints the cells that changed.
+   *
+   * @param view The view to render.
+   */
+  private void render(GameView view) {
+    view.getCellStates(this.states);
+    this.display.show(this.states);
+    this.statusLabel.setText(this.getTitleLabel(view));
   }
 
   /**
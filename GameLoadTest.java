@@ -0,0 +1,183 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a GameServer over the loopback interface with many concurrent clients.
+ * <p>
+ * Every client thread plays sessions one after the other: it connects, moves in random directions until the game
+ * ends, asks for the score and disconnects. The moves are pipelined: each write carries a batch of requests, and the
+ * latency of every action in the batch is the time from the write until its answer is read. The report gives the
+ * sessions and actions per second and the percentiles of the action latency.
+ */
+public class GameLoadTest {
+  private final InetSocketAddress address;
+  private final int depth;
+  private final AtomicLong sessions = new AtomicLong();
+
+  /**
+   * Constructs a load test.
+   *
+   * @param address The address of the server.
+   * @param depth   The number of requests per write.
+   */
+  public GameLoadTest(InetSocketAddress address, int depth) {
+    this.address = address;
+    this.depth = depth;
+  }
+
+  /**
+   * Runs the clients until the specified number of sessions is played, and prints the report.
+   *
+   * @param sessions The number of sessions to play.
+   * @param clients  The number of concurrent clients.
+   * @throws InterruptedException If interrupted while waiting for the clients.
+   */
+  public void run(long sessions, int clients) throws InterruptedException {
+    Client[] threads = new Client[clients];
+    long start = System.nanoTime();
+    for (int i = 0; i < clients; i++) {
+      threads[i] = new Client(sessions, i);
+      threads[i].start();
+    }
+    for (Client thread : threads) thread.join();
+    double seconds = (System.nanoTime() - start) / 1e9;
+    int samples = 0;
+    long actions = 0, score = 0;
+    for (Client thread : threads) {
+      if (thread.failure != null) throw new UncheckedIOException(thread.failure);
+      samples += thread.samples;
+      actions += thread.actions;
+      score += thread.score;
+    }
+    long[] latencies = new long[samples];
+    int offset = 0;
+    for (Client thread : threads) {
+      System.arraycopy(thread.latencies, 0, latencies, offset, thread.samples);
+      offset += thread.samples;
+    }
+    Arrays.sort(latencies);
+    System.out.printf("Sessions: %d with %d clients, %d requests per write%n", sessions, clients, this.depth);
+    System.out.printf("Sessions/sec: %.1f%n", sessions / seconds);
+    System.out.printf("Actions/sec: %.1f%n", actions / seconds);
+    System.out.printf("Mean score: %.3f%n", (double) score / sessions);
+    for (double percentile : new double[]{50, 90, 99, 99.9})
+      System.out.printf("p%s action latency: %.1f us%n", percentile == 99.9 ? "99.9" : (int) percentile,
+          latencies.length == 0 ? 0 : latencies[(int) Math.min(latencies.length - 1,
+              (long) (percentile / 100 * latencies.length))] / 1e3);
+  }
+
+  /**
+   * A client thread, which plays sessions until all have been claimed.
+   */
+  private class Client extends Thread {
+    private static final int MAX_SAMPLES = 1 << 22; // latencies are kept for the first actions only
+    private final long total;
+    private final SplittableRandom random;
+    private long[] latencies = new long[1 << 12];
+    private int samples = 0;
+    private long actions = 0, score = 0;
+    private IOException failure = null;
+
+    /**
+     * Constructs a client.
+     *
+     * @param total The number of sessions to play by all clients.
+     * @param index The index of the client, which seeds its moves.
+     */
+    private Client(long total, int index) {
+      super("load-test-" + index);
+      this.total = total;
+      this.random = new SplittableRandom(index);
+    }
+
+    /**
+     * Plays sessions until all have been claimed.
+     */
+    public void run() {
+      ByteBuffer requests = ByteBuffer.allocate(depth), answers = ByteBuffer.allocate(Math.max(depth, 4));
+      try {
+        while (sessions.getAndIncrement() < this.total) {
+          try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.play(channel, requests, answers);
+          }
+        }
+      } catch (IOException e) {
+        this.failure = e;
+      }
+    }
+
+    /**
+     * Plays one session.
+     *
+     * @param channel  The channel of the session.
+     * @param requests The buffer of the requests.
+     * @param answers  The buffer of the answers.
+     * @throws IOException If the connection fails.
+     */
+    private void play(SocketChannel channel, ByteBuffer requests, ByteBuffer answers) throws IOException {
+      boolean ended = false;
+      while (!ended) {
+        requests.clear();
+        for (int i = 0; i < depth; i++) requests.put((byte) (GameServer.MOVE + this.random.nextInt(4)));
+        requests.flip();
+        long start = System.nanoTime();
+        while (requests.hasRemaining()) channel.write(requests);
+        answers.clear().limit(depth);
+        while (answers.hasRemaining()) {
+          int before = answers.position();
+          if (channel.read(answers) < 0) throw new EOFException("The server closed the session. ");
+          long latency = System.nanoTime() - start;
+          for (int i = before; i < answers.position(); i++) {
+            if ((answers.get(i) & GameServer.ENDED) != 0) ended = true;
+            this.record(latency);
+          }
+        }
+        this.actions += depth;
+      }
+      channel.write(ByteBuffer.wrap(new byte[]{GameServer.SCORE}));
+      answers.clear().limit(4);
+      while (answers.hasRemaining()) if (channel.read(answers) < 0) throw new EOFException();
+      this.score += answers.getInt(0);
+    }
+
+    /**
+     * Records the latency of an action.
+     *
+     * @param latency The latency in nanoseconds.
+     */
+    private void record(long latency) {
+      if (this.samples == MAX_SAMPLES) return;
+      if (this.samples == this.latencies.length) this.latencies = Arrays.copyOf(this.latencies, 2 * this.samples);
+      this.latencies[this.samples++] = latency;
+    }
+  }
+
+  /**
+   * Main method to run a load test from the command line.
+   *
+   * @param args Command line arguments: the number of sessions (default 100000), the number of clients
+   *             (default 64), the number of requests per write (default 1), and the port of a running GameServer
+   *             (by default, a server is started in this process on a free port).
+   * @throws IOException          If the server cannot be started.
+   * @throws InterruptedException If interrupted while waiting for the clients.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    long sessions = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    int depth = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+    GameServer server = args.length > 3 ? null : new GameServer(0, 0);
+    int port = server == null ? Integer.parseInt(args[3]) : server.getPort();
+    new GameLoadTest(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), depth).run(sessions, clients);
+    if (server != null) server.close();
+  }
+}
@@ -0,0 +1,203 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Records games to an append-only binary log, so that any recorded game can be replayed step by step by GameReplay.
+ * <p>
+ * The log starts with the magic number (an int), followed by one record per game: the seed of the game (a long),
+ * the level packed by Level.encode() (an int), the number of actions (an int), and the actions packed 3 bits each,
+ * least significant bit first, in as many bytes as needed. The code of an action is the ordinal of its direction
+ * for a move, and 4 plus the ordinal for a shot. All integers are little-endian.
+ * <p>
+ * Actions are collected per game by a Game listening to the Level. Every thread copies its finished games into its
+ * own buffer, and appends the buffer to the channel when it is full, so many threads record into one log without
+ * contending for a lock; records of different threads interleave, but are never split. The buffers are only written
+ * out in full by close(). A thread holds the lock of its own buffer while it appends a game, so close() may run while
+ * games are still finishing (e.g. when a Tournament is aborted by an exception): a game finished after close() is
+ * dropped, and no record is cut in half.
+ */
+public class GameRecorder implements Closeable {
+  /**
+   * The magic number at the start of a log, "WREC".
+   */
+  public static final int MAGIC = 0x43455257;
+  private static final int BUFFER = 1 << 16, HEADER = 16;
+  private final FileChannel channel;
+  private final Predicate<Level> filter;
+  private final List<ByteBuffer> buffers = new ArrayList<>();
+  private final ThreadLocal<ByteBuffer> buffer = ThreadLocal.withInitial(this::newBuffer);
+  private volatile boolean closed = false;
+
+  /**
+   * Constructs a GameRecorder that records every game.
+   *
+   * @param path The path of the log, which is appended to if it exists.
+   * @throws IOException If the log cannot be opened.
+   */
+  public GameRecorder(Path path) throws IOException {
+    this(path, level -> true);
+  }
+
+  /**
+   * Constructs a GameRecorder that only records the games accepted by a filter, e.g. the games the bot lost.
+   *
+   * @param path   The path of the log, which is appended to if it exists.
+   * @param filter Decides from the level after the game whether to record it.
+   * @throws IOException If the log cannot be opened.
+   */
+  public GameRecorder(Path path, Predicate<Level> filter) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    this.filter = filter;
+    if (this.channel.size() == 0) this.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(MAGIC));
+  }
+
+  /**
+   * Creates the buffer of a thread.
+   *
+   * @return The buffer.
+   */
+  private ByteBuffer newBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+    synchronized (this.buffers) {
+      this.buffers.add(buffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * Starts recording a game, before its first action.
+   *
+   * @param seed  The seed of the game, kept for reference.
+   * @param level The level of the game, which reports its actions to the returned Game.
+   * @return The recording of the game, to pass to finish().
+   */
+  public Game start(long seed, Level level) {
+    Game game = new Game(seed, level.encode());
+    level.setActionListener(game);
+    return game;
+  }
+
+  /**
+   * Finishes recording a game and appends it to the buffer of the thread if the filter accepts it.
+   *
+   * @param game  The recording of the game.
+   * @param level The level after the game.
+   */
+  public void finish(Game game, Level level) {
+    level.setActionListener(null);
+    if (!this.filter.test(level)) return;
+    int bytes = game.actions * 3 + 7 >>> 3;
+    ByteBuffer buffer = this.buffer.get();
+    synchronized (buffer) {
+      if (this.closed) return;
+      this.append(game, bytes, buffer);
+    }
+  }
+
+  /**
+   * Appends a game to the buffer of the thread, writing the buffer out first if the game does not fit.
+   *
+   * @param game   The recording of the game.
+   * @param bytes  The number of bytes of the actions of the game.
+   * @param buffer The buffer of the thread, whose lock is held.
+   */
+  private void append(Game game, int bytes, ByteBuffer buffer) {
+    try {
+      if (buffer.remaining() < HEADER + bytes) this.write(buffer);
+      // a record larger than the buffer is written on its own
+      ByteBuffer target = buffer.remaining() < HEADER + bytes ?
+          ByteBuffer.allocate(HEADER + bytes).order(ByteOrder.LITTLE_ENDIAN) : buffer;
+      target.putLong(game.seed).putInt(game.level).putInt(game.actions);
+      int words = bytes >>> 3;
+      for (int i = 0; i < words; i++) target.putLong(game.bits[i]);
+      for (int i = words << 3; i < bytes; i++) target.put((byte) (game.bits[words] >>> 8 * (i & 7)));
+      if (target != buffer) this.write(target);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Appends the content of a buffer to the log and clears it.
+   *
+   * @param buffer The buffer, in write mode.
+   * @throws IOException If the log cannot be written.
+   */
+  private void write(ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) this.channel.write(buffer);
+    buffer.clear();
+  }
+
+  /**
+   * Writes the buffered games of every thread and closes the log.
+   *
+   * @throws IOException If the log cannot be written.
+   */
+  public void close() throws IOException {
+    this.closed = true;
+    synchronized (this.buffers) {
+      for (ByteBuffer buffer : this.buffers) {
+        synchronized (buffer) {
+          this.write(buffer);
+        }
+      }
+    }
+    this.channel.close();
+  }
+
+  /**
+   * The recording of one game in progress: collects the codes of its actions, 3 bits each.
+   */
+  public static class Game implements IntConsumer {
+    private final long seed;
+    private final int level;
+    private long[] bits = new long[2];
+    private int actions = 0;
+
+    /**
+     * Constructs an empty recording.
+     *
+     * @param seed  The seed of the game.
+     * @param level The packed level of the game.
+     */
+    private Game(long seed, int level) {
+      this.seed = seed;
+      this.level = level;
+    }
+
+    /**
+     * Records an action.
+     *
+     * @param code The code of the action, from 0 to 7.
+     */
+    public void accept(int code) {
+      long index = 3L * this.actions++;
+      int word = (int) (index >>> 6), shift = (int) index & 63;
+      if (word + 1 >= this.bits.length) this.bits = Arrays.copyOf(this.bits, 2 * this.bits.length);
+      this.bits[word] |= (long) code << shift;
+      if (shift > 61) this.bits[word + 1] |= code >>> 64 - shift; // the code straddles two words
+    }
+
+    /**
+     * Returns the number of recorded actions.
+     *
+     * @return The number of recorded actions.
+     */
+    public int getActions() {
+      return this.actions;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a log written by GameRecorder through a memory-mapped buffer, and replays its games.
+ * Opening a log indexes where every game starts; the actions are decoded from the buffer when they are replayed.
+ * A log is mapped in one piece, so it must be smaller than 2 GB.
+ */
+public class GameReplay {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private final MappedByteBuffer buffer;
+  private final int[] offsets;
+
+  /**
+   * Constructs a GameReplay over a mapped log.
+   *
+   * @param buffer The mapped log.
+   */
+  private GameReplay(MappedByteBuffer buffer) {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.capacity() < 4 || buffer.getInt(0) != GameRecorder.MAGIC)
+      throw new IllegalArgumentException("Not a game log. ");
+    this.buffer = buffer;
+    int[] offsets = new int[16];
+    int games = 0, offset = 4;
+    while (offset < buffer.capacity()) {
+      if (offset + 16 > buffer.capacity()) break;
+      if (games == offsets.length) offsets = Arrays.copyOf(offsets, 2 * games);
+      offsets[games++] = offset;
+      offset += 16 + (buffer.getInt(offset + 12) * 3 + 7 >>> 3);
+    }
+    if (offset != buffer.capacity()) throw new IllegalArgumentException("Truncated game log. ");
+    this.offsets = Arrays.copyOf(offsets, games);
+  }
+
+  /**
+   * Maps a log read-only.
+   *
+   * @param path The path of the log.
+   * @return The mapped log.
+   * @throws IOException If the log cannot be read.
+   */
+  public static GameReplay open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new GameReplay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Returns the number of games in the log.
+   *
+   * @return The number of games.
+   */
+  public int size() {
+    return this.offsets.length;
+  }
+
+  /**
+   * Returns the seed of a game.
+   *
+   * @param game The index of the game in the log.
+   * @return The seed of the game.
+   */
+  public long getSeed(int game) {
+    return this.buffer.getLong(this.offsets[game]);
+  }
+
+  /**
+   * Returns the level of a game, packed by Level.encode().
+   *
+   * @param game The index of the game in the log.
+   * @return The packed level.
+   */
+  public int getLevel(int game) {
+    return this.buffer.getInt(this.offsets[game] + 8);
+  }
+
+  /**
+   * Returns the number of actions of a game.
+   *
+   * @param game The index of the game in the log.
+   * @return The number of actions.
+   */
+  public int getActions(int game) {
+    return this.buffer.getInt(this.offsets[game] + 12);
+  }
+
+  /**
+   * Returns the code of an action of a game (see GameRecorder).
+   *
+   * @param game The index of the game in the log.
+   * @param step The index of the action.
+   * @return The code of the action.
+   */
+  public int getAction(int game, int step) {
+    int bit = 3 * step, start = this.offsets[game] + 16, end = start + (this.getActions(game) * 3 + 7 >>> 3);
+    int at = start + (bit >>> 3);
+    int bits = this.buffer.get(at) & 0xFF | (at + 1 < end ? (this.buffer.get(at + 1) & 0xFF) << 8 : 0);
+    return bits >>> (bit & 7) & 7;
+  }
+
+  /**
+   * Replays the first actions of a game, updating the observations after each action as Tournament does.
+   *
+   * @param game  The index of the game in the log.
+   * @param steps The number of actions to replay, at most getActions(game).
+   * @return The BackEnd of the game after the actions, with its Level.
+   */
+  public BackEnd replay(int game, int steps) {
+    BackEnd backEnd = new BackEnd(LevelGenerator.unpack(this.getLevel(game)));
+    Level level = backEnd.getLevel();
+    backEnd.updateObservations();
+    for (int step = 0; step < steps; step++) {
+      int code = this.getAction(game, step);
+      if (code < 4) level.move(DIRECTIONS[code]);
+      else level.shoot(DIRECTIONS[code - 4]);
+      backEnd.updateObservations();
+    }
+    return backEnd;
+  }
+
+  /**
+   * Main method to inspect a log from the command line.
+   *
+   * @param args Command line arguments: the path of the log, then optionally the index of a game and a step.
+   *             Without a game, lists every game; with a game, prints its level after the step
+   *             (by default, after its last action).
+   * @throws IOException If the log cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    GameReplay replay = open(Path.of(args[0]));
+    if (args.length == 1) {
+      for (int game = 0; game < replay.size(); game++) {
+        Level level = replay.replay(game, replay.getActions(game)).getLevel();
+        System.out.printf("Game %d: seed %d, %d actions, score %d, %s%n", game, replay.getSeed(game),
+            replay.getActions(game), level.getScore(), level.hasEnded() ? level.endType() : "UNFINISHED");
+      }
+      return;
+    }
+    int game = Integer.parseInt(args[1]);
+    int step = args.length > 2 ? Integer.parseInt(args[2]) : replay.getActions(game);
+    BackEnd backEnd = replay.replay(game, step);
+    Level level = backEnd.getLevel();
+    System.out.printf("Game %d, seed %d, after %d of %d actions: score %d%n", game, replay.getSeed(game), step,
+        replay.getActions(game), level.getScore());
+    if (step > 0) System.out.println("Last action: " + level.getActionType() + " " + level.getActionDirection());
+    System.out.println(level);
+  }
+}
@@ -0,0 +1,309 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Hosts games for agents in other processes over TCP, so that they can play without re-implementing Level.
+ * Every connection is a session with its own Level, which starts with a random level.
+ * <p>
+ * Every request is a single byte, answered in order, so a client can pipeline any number of requests without
+ * waiting for the answers:
+ * <ul>
+ *   <li>MOVE + direction ordinal (0 to 3) and SHOOT + direction ordinal (4 to 7) act, and answer a status byte;</li>
+ *   <li>NEW (8) starts a new random level, and STATUS (9) only observes; both answer a status byte;</li>
+ *   <li>SCORE (10) answers the score as a big-endian int;</li>
+ *   <li>END (11) answers a byte: 0 while the game runs, 1 + the ordinal of the End type once it has ended;</li>
+ *   <li>POSITION (12) answers a byte: the cell of the agent in the BitMap layout (row * 5 + col).</li>
+ * </ul>
+ * The status byte has the bits RESULT (what move or shoot returned), BREEZE, STENCH, GLITTER, ENDED, WUMPUS,
+ * ARROW and GOLD (Interface.detects*, hasEnded, hasWumpus, hasArrow and hasGold). Any other byte closes the session.
+ * <p>
+ * One thread serves every session with a Selector. A session handles all the requests it has received, and stops
+ * reading while its answers cannot be sent, so a client that does not read its answers only slows itself down.
+ */
+public class GameServer implements Closeable {
+  /**
+   * The request codes.
+   */
+  public static final int MOVE = 0, SHOOT = 4, NEW = 8, STATUS = 9, SCORE = 10, END = 11, POSITION = 12;
+  /**
+   * The bits of the status byte.
+   */
+  public static final int RESULT = 1, BREEZE = 2, STENCH = 4, GLITTER = 8, ENDED = 16, WUMPUS = 32, ARROW = 64,
+      GOLD = 128;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final int BUFFER = 1 << 12, ANSWER = 4; // the longest answer
+  private static final long PAUSE_MILLIS = 100; // how long accepting pauses after a failure
+  private final Selector selector;
+  private final ServerSocketChannel server;
+  private final SplittableRandom random;
+  private final Thread thread = new Thread(this::serve, "game-server");
+  private final SelectionKey acceptKey;
+  private volatile boolean closed = false;
+  private boolean paused = false;
+
+  /**
+   * Constructs a GameServer listening on a port of the loopback address, and starts serving.
+   *
+   * @param port The port, or 0 for any free port.
+   * @param seed The seed the levels of all sessions are drawn from.
+   * @throws IOException If the port cannot be bound.
+   */
+  public GameServer(int port, long seed) throws IOException {
+    this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), seed);
+  }
+
+  /**
+   * Constructs a GameServer listening on an address, and starts serving.
+   *
+   * @param address The address to listen on.
+   * @param seed    The seed the levels of all sessions are drawn from.
+   * @throws IOException If the address cannot be bound.
+   */
+  public GameServer(InetSocketAddress address, long seed) throws IOException {
+    this.random = new SplittableRandom(seed);
+    this.selector = Selector.open();
+    this.server = ServerSocketChannel.open();
+    this.server.bind(address, 1024);
+    this.server.configureBlocking(false);
+    this.acceptKey = this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return The port.
+   */
+  public int getPort() {
+    return this.server.socket().getLocalPort();
+  }
+
+  /**
+   * Serves the sessions until the server is closed or the selector fails, then closes every session.
+   */
+  private void serve() {
+    try {
+      while (!this.closed) {
+        this.selector.select(this.paused ? PAUSE_MILLIS : 0);
+        if (this.paused) {
+          this.paused = false;
+          this.acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) continue;
+          if (key.isAcceptable()) this.accept();
+          else ((Session) key.attachment()).handle(key);
+        }
+      }
+    } catch (IOException e) {
+      System.err.println("Game server stopped: " + e);
+    } finally {
+      for (SelectionKey key : this.selector.keys()) closeQuietly(key.channel());
+      closeQuietly(this.selector);
+    }
+  }
+
+  /**
+   * Accepts the pending connections. A connection that fails is logged and dropped, and serving goes on.
+   * If no connection can be accepted at all (e.g. out of file descriptors), accepting pauses for PAUSE_MILLIS,
+   * so that the server does not spin on a listening socket that stays ready; the rest wait in the backlog.
+   */
+  private void accept() {
+    while (true) {
+      SocketChannel channel;
+      try {
+        channel = this.server.accept();
+      } catch (IOException e) {
+        System.err.println("Game server cannot accept a connection: " + e);
+        this.acceptKey.interestOps(0);
+        this.paused = true;
+        return;
+      }
+      if (channel == null) return;
+      try {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(this.selector, SelectionKey.OP_READ, new Session(this.random.split()));
+      } catch (IOException e) {
+        System.err.println("Game server drops a connection: " + e);
+        closeQuietly(channel);
+      }
+    }
+  }
+
+  /**
+   * Closes a channel or the selector, ignoring a failure, since nothing is left to do about it.
+   *
+   * @param closeable The channel or selector.
+   */
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException ignored) {
+      // already closing
+    }
+  }
+
+  /**
+   * Stops serving and waits until every session is closed.
+   */
+  public void close() {
+    this.closed = true;
+    this.selector.wakeup();
+    try {
+      this.thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The state of one connection: its game, the requests received but not handled, and the answers not sent.
+   */
+  private static class Session {
+    private final SplittableRandom random;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER), out = ByteBuffer.allocate(BUFFER);
+    private Level level;
+
+    /**
+     * Constructs a session with a random level.
+     *
+     * @param random The random source of the levels of the session.
+     */
+    private Session(SplittableRandom random) {
+      this.random = random;
+      this.level = Level.generateLevel(random);
+      this.out.flip(); // out is kept in read mode, holding the answers not sent yet
+    }
+
+    /**
+     * Reads the requests, handles them and sends the answers, as far as the channel allows.
+     *
+     * @param key The key of the channel.
+     */
+    private void handle(SelectionKey key) {
+      SocketChannel channel = (SocketChannel) key.channel();
+      try {
+        if (!this.flush(channel)) return;
+        if (key.isReadable() && channel.read(this.in) < 0) {
+          channel.close();
+          return;
+        }
+        boolean left;
+        do left = this.process(); while (this.flush(channel) && left);
+        key.interestOps(this.out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+      } catch (IOException | IllegalArgumentException e) {
+        closeQuietly(channel);
+      }
+    }
+
+    /**
+     * Sends the pending answers.
+     *
+     * @param channel The channel.
+     * @return true if every answer was sent, false if the channel is full.
+     * @throws IOException If the channel fails.
+     */
+    private boolean flush(SocketChannel channel) throws IOException {
+      if (this.out.hasRemaining()) channel.write(this.out);
+      return !this.out.hasRemaining();
+    }
+
+    /**
+     * Handles the received requests until they run out or the answers fill the output buffer.
+     *
+     * @return true if requests are left because the output buffer is full.
+     */
+    private boolean process() {
+      this.in.flip();
+      this.out.compact();
+      while (this.in.hasRemaining() && this.out.remaining() >= ANSWER) this.answer(this.in.get());
+      boolean left = this.in.hasRemaining();
+      this.in.compact();
+      this.out.flip();
+      return left;
+    }
+
+    /**
+     * Handles a request and writes its answer.
+     *
+     * @param request The request byte.
+     */
+    private void answer(byte request) {
+      switch (request) {
+        case MOVE:
+        case MOVE + 1:
+        case MOVE + 2:
+        case MOVE + 3:
+          this.out.put(this.status(this.level.move(DIRECTIONS[request - MOVE])));
+          break;
+        case SHOOT:
+        case SHOOT + 1:
+        case SHOOT + 2:
+        case SHOOT + 3:
+          this.out.put(this.status(this.level.shoot(DIRECTIONS[request - SHOOT])));
+          break;
+        case NEW:
+          this.level = Level.generateLevel(this.random);
+          this.out.put(this.status(true));
+          break;
+        case STATUS:
+          this.out.put(this.status(true));
+          break;
+        case SCORE:
+          this.out.putInt(this.level.getScore());
+          break;
+        case END:
+          this.out.put((byte) (this.level.hasEnded() ? this.level.endType().ordinal() + 1 : 0));
+          break;
+        case POSITION:
+          this.out.put((byte) this.level.getAgentCoord().hashCode());
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid request: " + request);
+      }
+    }
+
+    /**
+     * Returns the status byte of the game.
+     *
+     * @param result The result of the action.
+     * @return The status byte.
+     */
+    private byte status(boolean result) {
+      Level level = this.level;
+      return (byte) ((result ? RESULT : 0) | (level.detectsBreeze() ? BREEZE : 0) |
+          (level.detectsStench() ? STENCH : 0) | (level.detectsGlitter() ? GLITTER : 0) |
+          (level.hasEnded() ? ENDED : 0) | (level.hasWumpus() ? WUMPUS : 0) | (level.hasArrow() ? ARROW : 0) |
+          (level.hasGold() ? GOLD : 0));
+    }
+  }
+
+  /**
+   * Main method to run a server from the command line until it is killed.
+   *
+   * @param args Command line arguments: the port (default 5050) and the seed of the levels (random by default).
+   * @throws IOException          If the port cannot be bound.
+   * @throws InterruptedException If interrupted while serving.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 5050;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : new SplittableRandom().nextLong();
+    GameServer server = new GameServer(port, seed);
+    System.out.println("Serving games on port " + server.getPort());
+    server.thread.join();
+  }
+}
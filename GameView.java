@@ -0,0 +1,101 @@
+/**
+ * An immutable copy of what the GUI shows of a game: the observed masks, the agent and the state of the level.
+ * A game played on another thread is shown through views, so its mutable BackEnd is never shared with the
+ * event dispatch thread. Taking a view only copies a few ints, and BoardComponent draws every cell from its state.
+ */
+public class GameView {
+  /**
+   * The bits of the state of a cell: whether the agent is on it, whether a breeze, a stench and glitter were
+   * observed on it, and whether it was loaded.
+   */
+  public static final int AGENT = 1, BREEZE = 2, STENCH = 4, GLITTER = 8, LOADED = 16;
+
+  private final int loaded, breeze, stench, gold, agent, score;
+  private final boolean hasWumpus, hasArrow, hasGold;
+  private final End endType;
+  private final ActionType actionType;
+  private final Direction actionDirection;
+
+  /**
+   * Constructs a view of the current state of a game.
+   *
+   * @param backEnd The BackEnd of the game.
+   */
+  public GameView(BackEnd backEnd) {
+    Level level = backEnd.getLevel();
+    this.loaded = backEnd.getLoaded().hashCode();
+    this.breeze = backEnd.getBreeze().hashCode();
+    this.stench = backEnd.getStench().hashCode();
+    this.gold = backEnd.getGold().hashCode();
+    this.agent = level.getAgentCoord().hashCode();
+    this.score = level.getScore();
+    this.hasWumpus = level.hasWumpus();
+    this.hasArrow = level.hasArrow();
+    this.hasGold = level.hasGold();
+    this.endType = level.hasEnded() ? level.endType() : null;
+    this.actionType = level.getActionType();
+    this.actionDirection = level.getActionDirection();
+  }
+
+  /**
+   * Returns the type of the last action.
+   *
+   * @return The type of the last action.
+   */
+  public ActionType getActionType() {
+    return this.actionType;
+  }
+
+  /**
+   * Returns the direction of the last action.
+   *
+   * @return The direction of the last action.
+   */
+  public Direction getActionDirection() {
+    return this.actionDirection;
+  }
+
+  /**
+   * Computes the states of all cells, for BoardComponent.
+   *
+   * @param states The states to fill, by index on Board.STANDARD.
+   */
+  public void getCellStates(byte[] states) {
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 4; col++) {
+        int cell = row * 5 + col;
+        states[row * 4 + col] = (byte) ((this.agent == cell ? AGENT : 0) | (this.breeze >> cell & 1) * BREEZE |
+            (this.stench >> cell & 1) * STENCH | (this.gold >> cell & 1) * GLITTER |
+            (this.loaded >> cell & 1) * LOADED);
+      }
+    }
+  }
+
+  /**
+   * Returns the general information (information that does not belong to any coordinate)
+   * about the game in HTML.
+   *
+   * @return A string containing the general information about the game.
+   */
+  public String getGeneralInfo() {
+    if (this.endType != null) {
+      switch (this.endType) {
+        case PIT:
+          return "You fell into a pit. <br/> Game over. <br/> Score: " + this.score + "<br/> Play again? ";
+        case WUMPUS:
+          return "You were eaten by the Wumpus. <br/> Game over. <br/> Score: " + this.score + "<br/> Play again? ";
+        case WIN:
+          return "You brought the gold back! <br/> Game over. <br/> Score: " + this.score + "<br/> Play again? ";
+      }
+    }
+    StringBuilder info = new StringBuilder();
+    if (this.hasWumpus) info.append("The Wumpus still dwells. <br/>");
+    else info.append("The Wumpus is dead. <br/>");
+    if (this.hasArrow) info.append("You have an arrow. <br/>");
+    else info.append("You used your arrow. <br/>");
+    if (this.hasGold) info.append("You have to retrieve the gold. <br/>");
+    else info.append("You have to bring back the gold. <br/>");
+    info.append("Current score: ").append(this.score);
+    return info.toString();
+  }
+}
@@ -14,12 +14,16 @@
  * is for Q-learning purposes, and the score is not relevant for Q-learning.
  * We represent an arrow that is not shot as an arrow shot upwards from (0, 0)
  * that hits the Wumpus, since this is otherwise impossible.
+ * <p>
+ * The ID is immutable and packed into a single long key:
+ * bits 0-15, 16-31 and 32-47 hold the compressed (BitMaps.compress) loaded, breeze and stench masks,
+ * bits 48-51 the shot cell (4 * row + col), bits 52-53 the ordinal of the shot direction,
+ * bit 54 whether the arrow hit and bit 55 the gold status. Bits 56-63 are always 0,
+ * so a table can use a key of -1 or any key with those bits set as a marker.
  */
 public class ID {
-  private final BitMap loaded, breeze, stench;
-  private final Coordinate shotCoordinate;
-  private final Direction shotDirection;
-  private final boolean arrowHit, goldStatus;
+  private static final int SHOT_CELL = 48, SHOT_DIRECTION = 52, ARROW_HIT = 54, GOLD_STATUS = 55;
+  private final long key;
 
   /**
    * Constructor for ID.
@@ -27,13 +31,128 @@ public class ID {
   public ID(BitMap loaded, BitMap breeze, BitMap stench,
             Coordinate shotCoordinate, Direction shotDirection,
             boolean arrowHit, boolean goldStatus) {
-    this.loaded = loaded;
-    this.breeze = breeze;
-    this.stench = stench;
-    this.shotCoordinate = shotCoordinate;
-    this.shotDirection = shotDirection;
-    this.arrowHit = arrowHit;
-    this.goldStatus = goldStatus;
+    this(key(loaded.hashCode(), breeze.hashCode(), stench.hashCode(),
+        shotCoordinate.hashCode(), shotDirection, arrowHit, goldStatus));
+  }
+
+  /**
+   * Constructs an ID from its packed key.
+   *
+   * @param key The packed key, as returned by key() or getKey().
+   */
+  public ID(long key) {
+    this.key = key;
+  }
+
+  /**
+   * Packs an observed level state into a key, without allocating.
+   *
+   * @param loaded         The mask (in the BitMap layout) of explored cells.
+   * @param breeze         The mask of explored cells with a breeze.
+   * @param stench         The mask of explored cells with a stench.
+   * @param shotCell       The index (Coordinate.hashCode()) of the cell the arrow was shot from.
+   * @param shotDirection  The direction the arrow was shot in.
+   * @param arrowHit       Whether the arrow hit the Wumpus.
+   * @param goldStatus     Whether the gold is still in the level.
+   * @return The packed key.
+   */
+  public static long key(int loaded, int breeze, int stench, int shotCell, Direction shotDirection,
+                         boolean arrowHit, boolean goldStatus) {
+    return (long) BitMaps.compress(loaded) |
+        (long) BitMaps.compress(breeze) << 16 |
+        (long) BitMaps.compress(stench) << 32 |
+        (long) (shotCell - shotCell / 5) << SHOT_CELL |
+        (long) shotDirection.ordinal() << SHOT_DIRECTION |
+        (arrowHit ? 1L : 0L) << ARROW_HIT |
+        (goldStatus ? 1L : 0L) << GOLD_STATUS;
+  }
+
+  /**
+   * Mixes the bits of a key (the finalizer of MurmurHash3), so that nearby keys spread over a hash table.
+   *
+   * @param key The key.
+   * @return The mixed key.
+   */
+  public static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  /**
+   * Returns the packed key of the ID.
+   *
+   * @return The packed key.
+   */
+  public long getKey() {
+    return this.key;
+  }
+
+  /**
+   * Returns the mask (in the BitMap layout) of explored cells.
+   *
+   * @return The mask of explored cells.
+   */
+  public int getLoaded() {
+    return BitMaps.expand((int) this.key & 0xFFFF);
+  }
+
+  /**
+   * Returns the mask (in the BitMap layout) of explored cells with a breeze.
+   *
+   * @return The mask of explored cells with a breeze.
+   */
+  public int getBreeze() {
+    return BitMaps.expand((int) (this.key >>> 16) & 0xFFFF);
+  }
+
+  /**
+   * Returns the mask (in the BitMap layout) of explored cells with a stench.
+   *
+   * @return The mask of explored cells with a stench.
+   */
+  public int getStench() {
+    return BitMaps.expand((int) (this.key >>> 32) & 0xFFFF);
+  }
+
+  /**
+   * Returns the coordinate the arrow was shot from.
+   *
+   * @return The coordinate the arrow was shot from.
+   */
+  public Coordinate getShotCoordinate() {
+    int cell = (int) (this.key >>> SHOT_CELL) & 15;
+    return new Coordinate(cell / 4, cell % 4);
+  }
+
+  /**
+   * Returns the direction the arrow was shot in.
+   *
+   * @return The direction the arrow was shot in.
+   */
+  public Direction getShotDirection() {
+    return Direction.values()[(int) (this.key >>> SHOT_DIRECTION) & 3];
+  }
+
+  /**
+   * Returns whether the arrow hit the Wumpus (or was not shot).
+   *
+   * @return true if the arrow hit the Wumpus or was not shot, false otherwise.
+   */
+  public boolean getArrowHit() {
+    return (this.key >>> ARROW_HIT & 1) == 1;
+  }
+
+  /**
+   * Returns whether the gold is still in the level.
+   *
+   * @return true if the gold is still in the level, false otherwise.
+   */
+  public boolean getGoldStatus() {
+    return (this.key >>> GOLD_STATUS & 1) == 1;
   }
 
   /**
@@ -43,13 +162,7 @@ public class ID {
    * @return true if the IDs are equal, false otherwise.
    */
   public boolean equals(ID other) {
-    return this.loaded.equals(other.loaded) &&
-        this.breeze.equals(other.breeze) &&
-        this.stench.equals(other.stench) &&
-        this.shotCoordinate.equals(other.shotCoordinate) &&
-        this.shotDirection == other.shotDirection &&
-        this.arrowHit == other.arrowHit &&
-        this.goldStatus == other.goldStatus;
+    return other != null && this.key == other.key;
   }
 
   /**
@@ -69,9 +182,16 @@ public class ID {
    * @return The hash code of the ID.
    */
   public int hashCode() {
-    return this.loaded.hashCode() << 10 | this.breeze.hashCode() << 8 |
-        this.stench.hashCode() << 6 | this.shotCoordinate.hashCode() << 4 |
-        this.shotDirection.hashCode() + (this.arrowHit ? 2 : 0) +
-            (this.goldStatus ? 1 : 0);
+    long mixed = mix(this.key);
+    return (int) (mixed ^ mixed >>> 32);
+  }
+
+  /**
+   * Returns a string representation of the ID.
+   *
+   * @return A string representation of the ID.
+   */
+  public String toString() {
+    return String.format("ID[%014x]", this.key);
   }
 }
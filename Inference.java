@@ -0,0 +1,325 @@
+import java.util.SplittableRandom;
+
+/**
+ * Computes the exact probabilities of pits and the Wumpus in every cell, given the observations of a BackEnd.
+ * The worlds are weighted as Level.generateLevel() generates them:
+ * every cell except the origin holds a pit with probability 0.2, levels with 14 or more pits are rejected,
+ * and the Wumpus and the gold are placed uniformly in the remaining empty cells.
+ * The cell of the Wumpus is thus one that drew no pit, so a world weighs a factor 0.8 for it besides the pits
+ * and the empty cells around it. main() checks the probabilities against a brute-force sum over LevelCorpus.
+ * <p>
+ * Only the frontier (unexplored cells next to explored ones) affects the observations, so only the pits of the frontier
+ * are enumerated, as submasks of the frontier mask. The pits of the other unexplored cells are summed over in closed form
+ * by their number, and the Wumpus is enumerated cell by cell. The cost is thus exponential in the size of the frontier
+ * only, which keeps it in the order of microseconds on a 4x4 grid.
+ * <p>
+ * The engine only handles the 4x4 grid: the masks are ints in the BitMap layout, and the tables (CELLS, MAX_PITS,
+ * the binomials) are those of the 16 cells of Level. It is not written over BoardMap on purpose: exact inference
+ * is exponential in the frontier, which stays within a few cells on 4x4 but has dozens to hundreds of cells on a
+ * large cave, where the enumeration could not finish. Large boards need an approximate engine instead, such as
+ * the safe-cell rule of BoardExploreBot.
+ */
+public class Inference {
+  private static final double PIT = 0.2;
+  private static final int CELLS = 16, MAX_PITS = 13;
+  private static final double[][] BINOMIAL = new double[CELLS + 1][CELLS + 1];
+  private static final double[] PIT_POWER = new double[CELLS + 1], EMPTY_POWER = new double[CELLS + 1];
+
+  static {
+    for (int n = 0; n <= CELLS; n++) {
+      BINOMIAL[n][0] = 1;
+      for (int k = 1; k <= n; k++) BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k < n ? BINOMIAL[n - 1][k] : 0);
+      PIT_POWER[n] = Math.pow(PIT, n);
+      EMPTY_POWER[n] = Math.pow(1 - PIT, n);
+    }
+  }
+
+  // indexed by Coordinate.hashCode(), like the bits of a BitMap.
+  private final double[] pit = new double[20], wumpus = new double[20];
+  private double total = 0;
+
+  /**
+   * Computes the probabilities for the current observations of a BackEnd.
+   *
+   * @param backEnd The BackEnd whose observations are used.
+   */
+  public Inference(BackEnd backEnd) {
+    this(backEnd.getLoaded().hashCode(), backEnd.getBreeze().hashCode(), backEnd.getStench().hashCode(),
+        backEnd.getGold().hashCode(), arrowLine(backEnd.getLevel()), !backEnd.getLevel().hasWumpus());
+  }
+
+  /**
+   * Computes the probabilities for the specified observations.
+   *
+   * @param loaded The mask of explored cells, which includes the origin.
+   * @param breeze The mask of explored cells with a breeze.
+   * @param stench The mask of explored cells with a stench.
+   * @param gold   The mask of the cell where glitter was seen, or 0 if the gold was not found yet.
+   * @param line   The mask of the cells the arrow flew through, or -1 if the arrow was not shot.
+   * @param hit    Whether the arrow hit (and killed) the Wumpus.
+   */
+  public Inference(int loaded, int breeze, int stench, int gold, int line, boolean hit) {
+    this(loaded, breeze, stench, gold, line == -1 ? BitMaps.FULL : hit ? line : ~line, hit, true);
+    if (this.total == 0) throw new IllegalArgumentException("Inconsistent observations. ");
+    for (int i = 0; i < 20; i++) {
+      this.pit[i] /= this.total;
+      this.wumpus[i] = hit ? 0 : this.wumpus[i] / this.total;
+    }
+  }
+
+  /**
+   * Returns the total weight of the worlds consistent with the specified observations,
+   * i.e. their probability up to a constant factor which is the same for all observations.
+   * The weight of an observation after an action, divided by the weight before it, is the probability of the outcome.
+   *
+   * @param loaded      The mask of explored cells, which includes the origin.
+   * @param breeze      The mask of explored cells with a breeze.
+   * @param stench      The mask of explored cells with a stench.
+   * @param gold        The mask of the cell where glitter was seen, or 0 if the gold was not found yet.
+   * @param wumpusCells The mask of the cells that may hold the Wumpus, as far as the arrow tells.
+   * @param dead        Whether the Wumpus is dead. A living Wumpus is never in an explored cell.
+   * @return The total weight of the consistent worlds, which is 0 if there is none.
+   */
+  public static double weight(int loaded, int breeze, int stench, int gold, int wumpusCells, boolean dead) {
+    // the enumeration leaves out the chance of the explored cells being free of pits, which is the same for all worlds
+    // of one observation, but not across observations with different explored cells. The chance of an unexplored
+    // Wumpus cell being free of pits cancels in the probabilities of the constructor, but not here, so the
+    // enumeration includes it.
+    return new Inference(loaded, breeze, stench, gold, wumpusCells, dead, false).total *
+        EMPTY_POWER[BitMaps.popcount(loaded & ~1)];
+  }
+
+  /**
+   * Sums the weights of the worlds consistent with the specified observations.
+   *
+   * @param loaded      The mask of explored cells, which includes the origin.
+   * @param breeze      The mask of explored cells with a breeze.
+   * @param stench      The mask of explored cells with a stench.
+   * @param gold        The mask of the cell where glitter was seen, or 0 if the gold was not found yet.
+   * @param wumpusCells The mask of the cells that may hold the Wumpus, as far as the arrow tells.
+   * @param dead        Whether the Wumpus is dead.
+   * @param marginals   Whether to also sum the weights of every cell holding a pit or the Wumpus.
+   */
+  private Inference(int loaded, int breeze, int stench, int gold, int wumpusCells, boolean dead, boolean marginals) {
+    int unknown = BitMaps.invert(loaded);
+    int frontier = unknown & BitMaps.neighbors(loaded);
+    int outside = unknown & ~frontier;
+    // the Wumpus is never at the origin, and only stands on an explored cell if it is dead.
+    int candidates = (dead ? BitMaps.FULL : unknown) & ~1 & ~gold & wumpusCells;
+    double[] sum = new double[CELLS + 1], pitSum = new double[CELLS + 1];
+    int previousOthers = -1, previousEmptyExplored = -1;
+    for (int remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+      int w = Integer.numberOfTrailingZeros(remaining), wumpusBit = 1 << w;
+      if ((BitMaps.neighbors(wumpusBit) & loaded) != stench) continue;
+      int pitFrontier = frontier & ~wumpusBit, others = BitMaps.popcount(outside & ~wumpusBit);
+      // the explored cells other than the origin are known to be empty, except for the cell of a dead Wumpus.
+      int emptyExplored = BitMaps.popcount(loaded & ~1 & ~wumpusBit);
+      // sum[k]: the weight of the pits outside of the frontier, given k pits in the frontier.
+      // pitSum[k]: the same weight, times the expected fraction of the outside cells holding a pit.
+      // They only depend on the number of outside and explored cells, which rarely changes between Wumpus cells.
+      if (others != previousOthers || emptyExplored != previousEmptyExplored) {
+        this.sumOutside(sum, pitSum, BitMaps.popcount(frontier), others, emptyExplored, gold != 0);
+        previousOthers = others;
+        previousEmptyExplored = emptyExplored;
+      }
+      int frontierSize = BitMaps.popcount(pitFrontier);
+      // the cell of the Wumpus holds no pit; for an explored cell, weight() accounts for it.
+      double wumpusEmpty = (wumpusBit & loaded) == 0 ? 1 - PIT : 1;
+      for (int pits = pitFrontier; ; pits = pits - 1 & pitFrontier) {
+        if ((BitMaps.neighbors(pits) & loaded) == breeze) {
+          int k = BitMaps.popcount(pits);
+          double weight = PIT_POWER[k] * EMPTY_POWER[frontierSize - k] * wumpusEmpty;
+          double world = weight * sum[k];
+          this.total += world;
+          if (marginals) {
+            this.wumpus[w] += world;
+            for (int cells = pits; cells != 0; cells &= cells - 1) this.pit[Integer.numberOfTrailingZeros(cells)] += world;
+            double outsidePit = weight * pitSum[k];
+            for (int cells = outside & ~wumpusBit; cells != 0; cells &= cells - 1)
+              this.pit[Integer.numberOfTrailingZeros(cells)] += outsidePit;
+          }
+        }
+        if (pits == 0) break;
+      }
+    }
+  }
+
+  /**
+   * Sums the weights of the pits outside of the frontier over their number, for every number of pits in the frontier.
+   * The weight of a world with p pits includes the rejection of levels with more than 13 pits, the chance 1 / (15 - p)
+   * of the Wumpus cell, and the chance of the gold being where it was seen, or in an unexplored cell.
+   *
+   * @param sum           Receives the sum of the weights, indexed by the number of pits in the frontier.
+   * @param pitSum        Receives the same sum, weighted by the fraction of the outside cells that hold a pit.
+   * @param frontier      The maximal number of pits in the frontier.
+   * @param others        The number of unexplored cells outside of the frontier, not counting the Wumpus cell.
+   * @param emptyExplored The number of explored cells known to be empty, not counting the origin.
+   * @param goldFound     Whether the glitter of the gold was seen.
+   */
+  private void sumOutside(double[] sum, double[] pitSum, int frontier, int others, int emptyExplored, boolean goldFound) {
+    for (int k = 0; k <= frontier; k++) {
+      sum[k] = 0;
+      pitSum[k] = 0;
+      for (int j = 0; j <= others && k + j <= MAX_PITS; j++) {
+        int pits = k + j;
+        double weight = BINOMIAL[others][j] * PIT_POWER[j] * EMPTY_POWER[others - j] / (15 - pits);
+        if (goldFound) weight /= 14 - pits;
+        else weight *= (double) (14 - pits - emptyExplored) / (14 - pits);
+        sum[k] += weight;
+        if (others > 0) pitSum[k] += weight * j / others;
+      }
+    }
+  }
+
+  /**
+   * Returns the mask of the cells the arrow of a level flew through.
+   *
+   * @param level The level.
+   * @return The mask of the cells the arrow flew through, or -1 if the arrow was not shot.
+   */
+  public static int arrowLine(Level level) {
+    if (level.hasArrow()) return -1;
+    int line = 0;
+    for (int arrow = BitMaps.move(BitMaps.of(level.getShotCoordinate()), level.getShotDirection()); arrow != 0;
+         arrow = BitMaps.move(arrow, level.getShotDirection()))
+      line |= arrow;
+    return line;
+  }
+
+  /**
+   * Returns the probability that a cell holds a pit.
+   *
+   * @param coordinate The cell.
+   * @return The probability that the cell holds a pit.
+   */
+  public double getPitProbability(Coordinate coordinate) {
+    return this.pit[coordinate.hashCode()];
+  }
+
+  /**
+   * Returns the probability that a cell holds a living Wumpus.
+   *
+   * @param coordinate The cell.
+   * @return The probability that the cell holds a living Wumpus.
+   */
+  public double getWumpusProbability(Coordinate coordinate) {
+    return this.wumpus[coordinate.hashCode()];
+  }
+
+  /**
+   * Returns the probability of dying when entering a cell.
+   *
+   * @param coordinate The cell.
+   * @return The probability of dying when entering the cell.
+   */
+  public double getDeathProbability(Coordinate coordinate) {
+    return this.getDeathProbability(coordinate.hashCode());
+  }
+
+  /**
+   * Returns the probability of dying when entering a cell.
+   *
+   * @param index The index (Coordinate.hashCode()) of the cell.
+   * @return The probability of dying when entering the cell.
+   */
+  public double getDeathProbability(int index) {
+    return this.pit[index] + this.wumpus[index];
+  }
+
+  /**
+   * Returns the mask of the cells whose probability of dying is zero.
+   *
+   * @return The mask of the safe cells.
+   */
+  public int getSafeMask() {
+    int safe = 0;
+    for (int i = 0; i < 20; i++) if ((BitMaps.FULL >> i & 1) == 1 && this.getDeathProbability(i) == 0) safe |= 1 << i;
+    return safe;
+  }
+
+  /**
+   * Returns a string representation of the death probabilities.
+   *
+   * @return A string representation of the death probabilities.
+   */
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 4; col++)
+        string.append(String.format("%.3f ", this.getDeathProbability(new Coordinate(row, col))));
+      string.append("\n");
+    }
+    return string.toString();
+  }
+
+  /**
+   * Returns the largest difference between the probabilities of an Inference and a brute-force sum over every level
+   * of a corpus consistent with the observations of a BackEnd.
+   *
+   * @param inference The inference for the observations.
+   * @param backEnd   The BackEnd whose observations are used.
+   * @param corpus    The corpus of all legal levels.
+   * @param total     Receives the total probability of the consistent levels in its first element.
+   * @return The largest difference of a pit or Wumpus probability.
+   */
+  private static double bruteForceError(Inference inference, BackEnd backEnd, LevelCorpus corpus, double[] total) {
+    int loaded = backEnd.getLoaded().hashCode(), breeze = backEnd.getBreeze().hashCode();
+    int stench = backEnd.getStench().hashCode(), gold = backEnd.getGold().hashCode();
+    int line = arrowLine(backEnd.getLevel());
+    boolean hit = !backEnd.getLevel().hasWumpus();
+    total[0] = 0;
+    double[] pit = new double[20], wumpus = new double[20];
+    for (int i = 0; i < corpus.size(); i++) {
+      int packed = corpus.get(i), pits = packed & BitMaps.FULL, w = packed >>> 20 & 31, g = packed >>> 25 & 31;
+      if ((pits & loaded) != 0 || (BitMaps.neighbors(pits) & loaded) != breeze) continue;
+      if ((BitMaps.neighbors(1 << w) & loaded) != stench) continue;
+      if (hit ? (line >> w & 1) == 0 : (loaded >> w & 1) != 0 || line != -1 && (line >> w & 1) != 0) continue;
+      if (gold != 0 ? 1 << g != gold : (loaded >> g & 1) != 0) continue;
+      double probability = corpus.getProbability(i);
+      total[0] += probability;
+      wumpus[w] += probability;
+      for (int cells = pits; cells != 0; cells &= cells - 1) pit[Integer.numberOfTrailingZeros(cells)] += probability;
+    }
+    double error = 0;
+    for (int cells = BitMaps.FULL; cells != 0; cells &= cells - 1) {
+      int cell = Integer.numberOfTrailingZeros(cells);
+      error = Math.max(error, Math.abs(pit[cell] / total[0] - inference.pit[cell]));
+      error = Math.max(error, Math.abs((hit ? 0 : wumpus[cell] / total[0]) - inference.wumpus[cell]));
+    }
+    return error;
+  }
+
+  /**
+   * Main method to check the probabilities against a brute-force sum over LevelCorpus from the command line,
+   * on the states met by random walks, which shoot the arrow now and then. It also checks that weight() is the
+   * brute-force probability of the observations up to one constant factor, as Solver needs.
+   *
+   * @param args Command line arguments: the number of states to check (default 1000) and the seed (default 0).
+   */
+  public static void main(String[] args) {
+    int states = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    SplittableRandom random = new SplittableRandom(args.length > 1 ? Long.parseLong(args[1]) : 0);
+    LevelCorpus corpus = new LevelCorpus();
+    double error = 0, minRatio = Double.POSITIVE_INFINITY, maxRatio = 0;
+    double[] total = new double[1];
+    for (int checked = 0; checked < states; ) {
+      BackEnd backEnd = new BackEnd(Level.generateLevel(random));
+      Level level = backEnd.getLevel();
+      backEnd.updateObservations();
+      for (; !level.hasEnded() && checked < states; checked++) {
+        error = Math.max(error, bruteForceError(new Inference(backEnd), backEnd, corpus, total));
+        int line = arrowLine(level);
+        double ratio = weight(backEnd.getLoaded().hashCode(), backEnd.getBreeze().hashCode(),
+            backEnd.getStench().hashCode(), backEnd.getGold().hashCode(),
+            line == -1 ? BitMaps.FULL : level.hasWumpus() ? ~line : line, !level.hasWumpus()) / total[0];
+        minRatio = Math.min(minRatio, ratio);
+        maxRatio = Math.max(maxRatio, ratio);
+        if (level.hasArrow() && random.nextInt(8) == 0) level.shoot(Direction.random(random));
+        else level.move(Direction.random(random));
+        backEnd.updateObservations();
+      }
+    }
+    System.out.printf("States: %d, largest difference from brute force: %.3g%n", states, error);
+    System.out.printf("Relative spread of weight() / brute force: %.3g%n", maxRatio / minRatio - 1);
+  }
+}
@@ -1,3 +1,7 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+
 /**
  * Represents the game level, including the agent, Wumpus, gold, and pits.
  */
@@ -11,6 +15,7 @@ class Level implements Interface {
   private End endType = null;
   private ActionType actionType;
   private Direction actionDirection;
+  private IntConsumer actionListener = null;
 
   /**
    * Constructs a Level with the specified parameters.
@@ -30,35 +35,57 @@ class Level implements Interface {
     this.stenchMap = wumpusCoord.asBitMap().getNeighbors();
   }
 
+  /**
+   * Generates a random level using the random source of the current thread.
+   *
+   * @return A new Level object.
+   */
+  public static Level generateLevel() {
+    return generateLevel(ThreadLocalRandom.current());
+  }
+
   /**
    * Generates a random level with pits, a Wumpus, and gold.
    * Pits generate independently with probability 0.2.
    * The Wumpus and gold are placed in random empty coordinates.
    * Simply retries if the number of pits is too high.
    * (Probably will never happen, but just in case.)
+   * The same random source in the same state always generates the same level.
    *
+   * @param random The random source to draw from.
    * @return A new Level object.
    */
-  public static Level generateLevel() {
+  public static Level generateLevel(RandomGenerator random) {
     BitMap occupied = new BitMap(0b1);
-    BitMap pitMap = occupied.not().and(BitMap.uniform(0.2));
+    BitMap pitMap = occupied.not().and(BitMap.uniform(0.2, random));
     occupied.update(pitMap);
-    if (occupied.size() > 14) return generateLevel(); // too many pits, retry
-    Coordinate wumpusCoord = randEmpty(occupied);
+    if (occupied.size() > 14) return generateLevel(random); // too many pits, retry
+    Coordinate wumpusCoord = randEmpty(occupied, random);
     occupied.update(wumpusCoord);
-    Coordinate goldCoord = randEmpty(occupied);
+    Coordinate goldCoord = randEmpty(occupied, random);
     return new Level(pitMap, wumpusCoord, goldCoord);
   }
 
   /**
-   * Returns a random empty coordinate from the occupied BitMap.
+   * Returns a random empty coordinate from the occupied BitMap using the random source of the current thread.
    *
    * @param occupied The BitMap representing occupied coordinates.
    * @return A random empty coordinate.
    */
   public static Coordinate randEmpty(BitMap occupied) {
+    return randEmpty(occupied, ThreadLocalRandom.current());
+  }
+
+  /**
+   * Returns a random empty coordinate from the occupied BitMap.
+   *
+   * @param occupied The BitMap representing occupied coordinates.
+   * @param random   The random source to draw from.
+   * @return A random empty coordinate.
+   */
+  public static Coordinate randEmpty(BitMap occupied, RandomGenerator random) {
     Coordinate coordinate = new Coordinate();
-    while (occupied.get(coordinate)) coordinate.randomize();
+    while (occupied.get(coordinate)) coordinate.randomize(random);
     return coordinate;
   }
 
@@ -75,6 +102,7 @@ class Level implements Interface {
   public boolean move(Direction direction) {
     this.actionType = ActionType.MOVE;
     this.actionDirection = direction;
+    if (this.actionListener != null) this.actionListener.accept(direction.ordinal());
     if (!this.hasEnded && this.agentCoord.move(direction)) {
       this.score -= 1;
       if (this.pitMap.get(this.agentCoord)) {
@@ -127,6 +155,7 @@ class Level implements Interface {
   public boolean shoot(Direction direction) {
     this.actionType = ActionType.SHOOT;
     this.actionDirection = direction;
+    if (this.actionListener != null) this.actionListener.accept(4 + direction.ordinal());
     if (this.hasEnded || !hasArrow) return false;
     this.shotCoordinate = this.agentCoord.copy();
     this.shotDirection = direction;
@@ -190,6 +219,25 @@ class Level implements Interface {
     return this.shotDirection;
   }
 
+  /**
+   * Returns the pits, the Wumpus and the gold of the level packed into an int, as by LevelGenerator.draw().
+   *
+   * @return The packed level.
+   */
+  public int encode() {
+    return this.pitMap.hashCode() | this.wumpusCoord.hashCode() << 20 | this.goldCoord.hashCode() << 25;
+  }
+
+  /**
+   * Sets the listener called on every action, successful or not, with its code:
+   * the ordinal of the direction for a move, and 4 plus the ordinal for a shot.
+   *
+   * @param actionListener The listener, or null for none.
+   */
+  public void setActionListener(IntConsumer actionListener) {
+    this.actionListener = actionListener;
+  }
+
   /**
    * Returns the type of the last action performed, regardless of whether it was successful or not.
    *
@@ -0,0 +1,328 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulates many games at once, with the same rules as Level, for large-scale evaluation.
+ * <p>
+ * The games are stored as a structure of arrays of primitives instead of one Level object per game:
+ * the pit mask (in the BitMap layout), the cells (row * 5 + col, i.e. Coordinate.hashCode()) of the Wumpus,
+ * the gold and the agent, the score, the status flags, the end type and the shot. A game takes 14 bytes,
+ * so a million games fit in 14 MB. move() and shoot() step a range of games in one tight loop over the arrays,
+ * without allocating; disjoint ranges may be stepped by different threads.
+ */
+public class LevelBatch {
+  private static final int HAS_WUMPUS = 1, HAS_ARROW = 2, HAS_GOLD = 4, HAS_ENDED = 8;
+  private static final int INITIAL = HAS_WUMPUS | HAS_ARROW | HAS_GOLD;
+  private static final End[] ENDS = End.values();
+  private static final Direction[] DIRECTIONS = Direction.values();
+  // the change of the cell index for a step in the direction with that ordinal
+  private static final int[] DELTA = new int[DIRECTIONS.length];
+  // the cells an arrow flies through, indexed by 4 * cell + direction ordinal
+  private static final int[] LINE = new int[20 * DIRECTIONS.length];
+
+  static {
+    for (Direction direction : DIRECTIONS) {
+      DELTA[direction.ordinal()] = Integer.numberOfTrailingZeros(BitMaps.move(1 << 6, direction)) - 6;
+      for (int cell = 0; cell < 20; cell++) {
+        int line = 0;
+        for (int arrow = BitMaps.move(1 << cell & BitMaps.FULL, direction); arrow != 0;
+             arrow = BitMaps.move(arrow, direction))
+          line |= arrow;
+        LINE[4 * cell + direction.ordinal()] = line;
+      }
+    }
+  }
+
+  private final int size;
+  private final int[] pits, scores;
+  private final byte[] wumpus, gold, agent, flags, ends, shots;
+
+  /**
+   * Constructs a LevelBatch of games without pits, with the Wumpus and the gold at the origin.
+   * The games are meant to be filled with set() or generate() before they are played.
+   *
+   * @param size The number of games.
+   */
+  public LevelBatch(int size) {
+    this.size = size;
+    this.pits = new int[size];
+    this.scores = new int[size];
+    this.wumpus = new byte[size];
+    this.gold = new byte[size];
+    this.agent = new byte[size];
+    this.flags = new byte[size];
+    this.ends = new byte[size];
+    this.shots = new byte[size];
+    Arrays.fill(this.flags, (byte) INITIAL);
+    Arrays.fill(this.shots, (byte) -1);
+  }
+
+  /**
+   * Sets a game to the start of the level with the specified pits, Wumpus and gold.
+   *
+   * @param i      The index of the game.
+   * @param pits   The mask of the pits.
+   * @param wumpus The cell of the Wumpus.
+   * @param gold   The cell of the gold.
+   */
+  public void set(int i, int pits, int wumpus, int gold) {
+    this.pits[i] = pits;
+    this.wumpus[i] = (byte) wumpus;
+    this.gold[i] = (byte) gold;
+    this.agent[i] = 0;
+    this.scores[i] = 0;
+    this.flags[i] = INITIAL;
+    this.ends[i] = 0;
+    this.shots[i] = -1;
+  }
+
+  /**
+   * Sets a game to a random level. Draws exactly what Level.generateLevel() draws from the random source,
+   * so the same random source in the same state generates the same level.
+   *
+   * @param i      The index of the game.
+   * @param random The random source to draw from.
+   */
+  public void generate(int i, RandomGenerator random) {
+    int pits;
+    do pits = BitMap.uniform(0.2, random).hashCode() & ~1;
+    while (BitMaps.popcount(pits) > 13); // too many pits, retry
+    int wumpus = randEmpty(pits | 1, random);
+    int gold = randEmpty(pits | 1 | 1 << wumpus, random);
+    this.set(i, pits, wumpus, gold);
+  }
+
+  /**
+   * Sets every game to a random level.
+   *
+   * @param random The random source to draw from.
+   */
+  public void generate(RandomGenerator random) {
+    for (int i = 0; i < this.size; i++) this.generate(i, random);
+  }
+
+  /**
+   * Returns a random empty cell, drawing like Level.randEmpty().
+   *
+   * @param occupied The mask of occupied cells, which includes the origin.
+   * @param random   The random source to draw from.
+   * @return A random empty cell.
+   */
+  private static int randEmpty(int occupied, RandomGenerator random) {
+    int cell = 0;
+    while ((occupied >>> cell & 1) != 0) cell = random.nextInt(4) * 5 + random.nextInt(4);
+    return cell;
+  }
+
+  /**
+   * Makes the agent of every game move in the direction with the specified ordinal.
+   *
+   * @param directions The ordinal of the direction for every game, or -1 to leave the game alone.
+   */
+  public void move(int[] directions) {
+    this.move(directions, 0, this.size);
+  }
+
+  /**
+   * Makes the agent of a range of games move, with the same rules and scores as Level.move().
+   * Games that ended and moves into a wall are left alone.
+   *
+   * @param directions The ordinal of the direction for every game, or -1 to leave the game alone.
+   * @param from       The index of the first game, inclusive.
+   * @param to         The index of the last game, exclusive.
+   */
+  public void move(int[] directions, int from, int to) {
+    for (int i = from; i < to; i++) {
+      int direction = directions[i], flag = this.flags[i];
+      if (direction < 0 || (flag & HAS_ENDED) != 0) continue;
+      int cell = this.agent[i] + DELTA[direction];
+      if (cell < 0 || cell >= 20 || (BitMaps.FULL >>> cell & 1) == 0) continue; // wall
+      int score = this.scores[i] - 1, end = 0;
+      if ((this.pits[i] >>> cell & 1) != 0) {
+        score -= 1000;
+        end = End.PIT.ordinal() + 1;
+      }
+      if (cell == this.wumpus[i] && (flag & HAS_WUMPUS) != 0) {
+        score -= 1000;
+        end = End.WUMPUS.ordinal() + 1;
+      }
+      if (cell == this.gold[i]) flag &= ~HAS_GOLD;
+      if (cell == 0 && (flag & HAS_GOLD) == 0) {
+        score += 1000;
+        end = End.WIN.ordinal() + 1;
+      }
+      this.agent[i] = (byte) cell;
+      this.scores[i] = score;
+      this.flags[i] = (byte) (end == 0 ? flag : flag | HAS_ENDED);
+      this.ends[i] = (byte) end;
+    }
+  }
+
+  /**
+   * Makes the agent of every game shoot in the direction with the specified ordinal.
+   *
+   * @param directions The ordinal of the direction for every game, or -1 to leave the game alone.
+   */
+  public void shoot(int[] directions) {
+    this.shoot(directions, 0, this.size);
+  }
+
+  /**
+   * Makes the agent of a range of games shoot, with the same rules and scores as Level.shoot().
+   * Games that ended and games without the arrow are left alone.
+   *
+   * @param directions The ordinal of the direction for every game, or -1 to leave the game alone.
+   * @param from       The index of the first game, inclusive.
+   * @param to         The index of the last game, exclusive.
+   */
+  public void shoot(int[] directions, int from, int to) {
+    for (int i = from; i < to; i++) {
+      int direction = directions[i], flag = this.flags[i];
+      if (direction < 0 || (flag & (HAS_ENDED | HAS_ARROW)) != HAS_ARROW) continue;
+      int shot = 4 * this.agent[i] + direction;
+      if ((LINE[shot] >>> this.wumpus[i] & 1) != 0) flag &= ~HAS_WUMPUS;
+      this.scores[i] -= 10;
+      this.flags[i] = (byte) (flag & ~HAS_ARROW);
+      this.shots[i] = (byte) shot;
+    }
+  }
+
+  /**
+   * Returns the number of games.
+   *
+   * @return The number of games.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns a new Level at the start of the same game.
+   *
+   * @param i The index of the game.
+   * @return A new Level with the same pits, Wumpus and gold.
+   */
+  public Level getLevel(int i) {
+    return new Level(new BitMap(this.pits[i]), new Coordinate(this.wumpus[i] / 5, this.wumpus[i] % 5),
+        new Coordinate(this.gold[i] / 5, this.gold[i] % 5));
+  }
+
+  /**
+   * Returns the mask of the pits of a game.
+   *
+   * @param i The index of the game.
+   * @return The mask of the pits.
+   */
+  public int getPits(int i) {
+    return this.pits[i];
+  }
+
+  /**
+   * Returns the cell of the Wumpus of a game.
+   *
+   * @param i The index of the game.
+   * @return The cell (row * 5 + col) of the Wumpus.
+   */
+  public int getWumpus(int i) {
+    return this.wumpus[i];
+  }
+
+  /**
+   * Returns the cell of the gold of a game.
+   *
+   * @param i The index of the game.
+   * @return The cell (row * 5 + col) of the gold.
+   */
+  public int getGold(int i) {
+    return this.gold[i];
+  }
+
+  /**
+   * Returns the cell of the agent of a game.
+   *
+   * @param i The index of the game.
+   * @return The cell (row * 5 + col) of the agent.
+   */
+  public int getAgent(int i) {
+    return this.agent[i];
+  }
+
+  /**
+   * Returns the score of a game.
+   *
+   * @param i The index of the game.
+   * @return The score of the game.
+   */
+  public int getScore(int i) {
+    return this.scores[i];
+  }
+
+  /**
+   * Returns the sum of the scores of all the games.
+   *
+   * @return The sum of the scores.
+   */
+  public long getTotalScore() {
+    long total = 0;
+    for (int i = 0; i < this.size; i++) total += this.scores[i];
+    return total;
+  }
+
+  public boolean hasWumpus(int i) {
+    return (this.flags[i] & HAS_WUMPUS) != 0;
+  }
+
+  public boolean hasArrow(int i) {
+    return (this.flags[i] & HAS_ARROW) != 0;
+  }
+
+  public boolean hasGold(int i) {
+    return (this.flags[i] & HAS_GOLD) != 0;
+  }
+
+  public boolean hasEnded(int i) {
+    return (this.flags[i] & HAS_ENDED) != 0;
+  }
+
+  /**
+   * Returns how a game ended.
+   *
+   * @param i The index of the game.
+   * @return The end type, or null if the game has not ended.
+   */
+  public End endType(int i) {
+    return this.ends[i] == 0 ? null : ENDS[this.ends[i] - 1];
+  }
+
+  public boolean detectsBreeze(int i) {
+    return (BitMaps.neighbors(this.pits[i]) >>> this.agent[i] & 1) != 0;
+  }
+
+  public boolean detectsStench(int i) {
+    return (BitMaps.neighbors(1 << this.wumpus[i]) >>> this.agent[i] & 1) != 0;
+  }
+
+  public boolean detectsGlitter(int i) {
+    return this.agent[i] == this.gold[i];
+  }
+
+  /**
+   * Returns the cell the arrow of a game was shot from.
+   *
+   * @param i The index of the game.
+   * @return The cell (row * 5 + col) of the shot, or -1 if the arrow was not shot.
+   */
+  public int getShotCell(int i) {
+    return this.shots[i] < 0 ? -1 : this.shots[i] / 4;
+  }
+
+  /**
+   * Returns the direction the arrow of a game was shot in.
+   *
+   * @param i The index of the game.
+   * @return The direction of the shot, or null if the arrow was not shot.
+   */
+  public Direction getShotDirection(int i) {
+    return this.shots[i] < 0 ? null : DIRECTIONS[this.shots[i] % 4];
+  }
+}
@@ -0,0 +1,252 @@
+import java.util.stream.IntStream;
+
+/**
+ * Every legal level (pit mask, Wumpus and gold) with its exact probability under Level.generateLevel(),
+ * so that bots can be scored exactly instead of on random samples.
+ * <p>
+ * A level with k pits has probability 0.2^k * 0.8^(15 - k) / Z / ((15 - k) * (14 - k)), where Z is the probability
+ * of at most 13 pits and (15 - k) * (14 - k) counts the placements of the Wumpus and the gold on the empty cells.
+ * There are 15 * 14 * 2^13 = 1720320 levels. Each is stored as an int in the layout of LevelGenerator.draw(),
+ * so the corpus takes 7 MB, and the probability is looked up from the pit count.
+ * <p>
+ * evaluate() plays a bot once on every level in parallel. The scores are summed exactly in longs per pit count,
+ * and only weighted at the end, so the result does not depend on the scheduling of the threads.
+ * For a deterministic bot, it is the exact expected score; a bot drawing random actions is still sampled once per
+ * level, from the seed baseSeed + index.
+ */
+public class LevelCorpus {
+  private static final int PITS = 14; // 0 to 13 pits
+  private static final double[] PROBABILITY = new double[PITS];
+
+  static {
+    double allowed = 0;
+    for (int k = 0; k < PITS; k++) allowed += binomial(15, k) * Math.pow(0.2, k) * Math.pow(0.8, 15 - k);
+    for (int k = 0; k < PITS; k++)
+      PROBABILITY[k] = Math.pow(0.2, k) * Math.pow(0.8, 15 - k) / allowed / ((15 - k) * (14 - k));
+  }
+
+  private final int[] levels;
+
+  /**
+   * Constructs the corpus by enumerating every legal level.
+   * The levels are sorted by pit mask (compressed), then Wumpus cell, then gold cell.
+   */
+  public LevelCorpus() {
+    this.levels = new int[15 * 14 << 13];
+    int size = 0;
+    for (int mask = 0; mask < 1 << 15; mask++) {
+      int compressed = mask << 1, pits = BitMaps.expand(compressed);
+      if (Integer.bitCount(mask) >= PITS) continue;
+      for (int wumpus = 1; wumpus < 16; wumpus++) {
+        if ((compressed >> wumpus & 1) != 0) continue;
+        for (int gold = 1; gold < 16; gold++) {
+          if ((compressed >> gold & 1) != 0 || gold == wumpus) continue;
+          this.levels[size++] = pits | (wumpus + wumpus / 4) << 20 | (gold + gold / 4) << 25;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns n choose k.
+   *
+   * @param n The size of the set.
+   * @param k The size of the subsets.
+   * @return The number of subsets of size k.
+   */
+  private static double binomial(int n, int k) {
+    double binomial = 1;
+    for (int i = 1; i <= k; i++) binomial = binomial * (n - k + i) / i;
+    return binomial;
+  }
+
+  /**
+   * Returns the number of levels.
+   *
+   * @return The number of levels.
+   */
+  public int size() {
+    return this.levels.length;
+  }
+
+  /**
+   * Returns a level of the corpus, packed as by LevelGenerator.draw().
+   *
+   * @param i The index of the level.
+   * @return The packed level.
+   */
+  public int get(int i) {
+    return this.levels[i];
+  }
+
+  /**
+   * Returns a new Level at the start of a level of the corpus.
+   *
+   * @param i The index of the level.
+   * @return A new Level object.
+   */
+  public Level getLevel(int i) {
+    return LevelGenerator.unpack(this.levels[i]);
+  }
+
+  /**
+   * Returns the probability that Level.generateLevel() generates a level of the corpus.
+   *
+   * @param i The index of the level.
+   * @return The probability of the level.
+   */
+  public double getProbability(int i) {
+    return PROBABILITY[BitMaps.popcount(this.levels[i] & BitMaps.FULL)];
+  }
+
+  /**
+   * Plays the bot of a tournament once on every level, in parallel.
+   *
+   * @param tournament The tournament, whose bot factory and step limit are used.
+   * @param baseSeed   The seed of the random source of the bot on the first level.
+   * @return The probability-weighted results.
+   */
+  public Result evaluate(Tournament tournament, long baseSeed) {
+    long start = System.nanoTime();
+    Result result = IntStream.range(0, this.levels.length).parallel().collect(Result::new, (partial, i) ->
+        partial.add(this.levels[i], tournament.play(this.getLevel(i), baseSeed + i)),
+        Result::merge);
+    result.elapsed = System.nanoTime() - start;
+    return result;
+  }
+
+  /**
+   * Probability-weighted results of playing every level once.
+   * Sums are kept exactly in longs per pit count, so partial results can be merged in any order.
+   */
+  public static class Result {
+    private final long[] games = new long[PITS], sums = new long[PITS], sumsOfSquares = new long[PITS];
+    // the last slot counts unfinished games
+    private final long[][] endCounts = new long[PITS][End.values().length + 1];
+    private long elapsed = 0;
+
+    /**
+     * Adds a game to the result.
+     *
+     * @param packed The packed level that was played.
+     * @param level  The level after the game.
+     */
+    public void add(int packed, Level level) {
+      int k = BitMaps.popcount(packed & BitMaps.FULL);
+      long score = level.getScore();
+      this.games[k]++;
+      this.sums[k] += score;
+      this.sumsOfSquares[k] += score * score;
+      this.endCounts[k][level.hasEnded() ? level.endType().ordinal() : End.values().length]++;
+    }
+
+    /**
+     * Merges another partial result into this one.
+     *
+     * @param other The other partial result.
+     */
+    public void merge(Result other) {
+      for (int k = 0; k < PITS; k++) {
+        this.games[k] += other.games[k];
+        this.sums[k] += other.sums[k];
+        this.sumsOfSquares[k] += other.sumsOfSquares[k];
+        for (int i = 0; i < this.endCounts[k].length; i++) this.endCounts[k][i] += other.endCounts[k][i];
+      }
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return The number of games played.
+     */
+    public long getGames() {
+      long games = 0;
+      for (long count : this.games) games += count;
+      return games;
+    }
+
+    /**
+     * Returns the expected score.
+     *
+     * @return The probability-weighted mean score.
+     */
+    public double getMean() {
+      double mean = 0;
+      for (int k = 0; k < PITS; k++) mean += PROBABILITY[k] * this.sums[k];
+      return mean;
+    }
+
+    /**
+     * Returns the variance of the score.
+     *
+     * @return The probability-weighted variance of the score.
+     */
+    public double getVariance() {
+      double square = 0, mean = this.getMean();
+      for (int k = 0; k < PITS; k++) square += PROBABILITY[k] * this.sumsOfSquares[k];
+      return square - mean * mean;
+    }
+
+    /**
+     * Returns the probability of a game ending with the specified end type.
+     *
+     * @param end The end type.
+     * @return The probability of the end type.
+     */
+    public double getProbability(End end) {
+      return this.getProbability(end.ordinal());
+    }
+
+    /**
+     * Returns the probability of a game being stopped by the step limit.
+     *
+     * @return The probability of an unfinished game.
+     */
+    public double getUnfinishedProbability() {
+      return this.getProbability(End.values().length);
+    }
+
+    /**
+     * Returns the probability of a game ending in the specified slot of the end counts.
+     *
+     * @param slot The slot.
+     * @return The probability of the slot.
+     */
+    private double getProbability(int slot) {
+      double probability = 0;
+      for (int k = 0; k < PITS; k++) probability += PROBABILITY[k] * this.endCounts[k][slot];
+      return probability;
+    }
+
+    /**
+     * Returns a string representation of the result.
+     *
+     * @return A string representation of the result.
+     */
+    public String toString() {
+      StringBuilder string = new StringBuilder();
+      string.append("Levels: ").append(this.getGames()).append("\n");
+      string.append("Seconds: ").append(String.format("%.1f", this.elapsed / 1e9)).append("\n");
+      string.append("Expected score: ").append(String.format("%.6f", this.getMean())).append("\n");
+      string.append("Variance: ").append(String.format("%.3f", this.getVariance())).append("\n");
+      for (End end : End.values())
+        string.append(end).append(": ").append(String.format("%.6f", this.getProbability(end))).append("\n");
+      string.append("UNFINISHED: ").append(String.format("%.6f", this.getUnfinishedProbability())).append("\n");
+      return string.toString();
+    }
+  }
+
+  /**
+   * Main method to score a bot exactly from the command line.
+   *
+   * @param args Command line arguments: the name of the bot, as in Tournament.getBot (default bot),
+   *             and the base seed of its random source (default 0).
+   */
+  public static void main(String[] args) {
+    String name = args.length > 0 ? args[0] : "bot";
+    long baseSeed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+    LevelCorpus corpus = new LevelCorpus();
+    System.out.println("Bot: " + name);
+    System.out.print(corpus.evaluate(new Tournament(Tournament.getBot(name)), baseSeed));
+  }
+}
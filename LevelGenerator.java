@@ -0,0 +1,230 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates random levels with the same distribution as Level.generateLevel(), but without retries.
+ * <p>
+ * The pits of the 15 cells other than the origin are drawn as one of the 2^15 pit masks, with the probability
+ * 0.2^k * 0.8^(15 - k) of a mask with k pits, conditioned on at most 13 pits. The mask is drawn from a single
+ * random long with an alias table (Vose's method): the low 15 bits pick a column, and the high 32 bits decide between
+ * the column and its alias. The Wumpus and the gold are then placed on the k-th and j-th empty cells,
+ * with k and j taken from the two halves of a second long by multiply-shift, and the cells selected with a table.
+ * So a level costs two draws, no division and no loop over the random source,
+ * where Level.generateLevel() draws at least 22 numbers.
+ * <p>
+ * The alias probabilities and the indices of the Wumpus and the gold are rounded to 32 bits,
+ * so the distribution is exact up to a relative error of about 2^-28.
+ * The main method compares the generator with Level.generateLevel() with chi-squared tests.
+ */
+public class LevelGenerator {
+  private static final int MASKS = 1 << 15, MAX_PITS = 13;
+  private static final long[] THRESHOLD = new long[MASKS];
+  private static final short[] ALIAS = new short[MASKS];
+  // the index of the n-th lowest set bit of a byte b, at 8 * b + n
+  private static final byte[] SELECT = new byte[256 * 8];
+
+  static {
+    for (int b = 0; b < 256; b++) {
+      int n = 0;
+      for (int bit = 0; bit < 8; bit++) if ((b >> bit & 1) != 0) SELECT[b << 3 | n++] = (byte) bit;
+    }
+    double[] scaled = new double[MASKS];
+    double total = 0;
+    for (int mask = 0; mask < MASKS; mask++) {
+      int k = Integer.bitCount(mask);
+      scaled[mask] = k > MAX_PITS ? 0 : Math.pow(0.2, k) * Math.pow(0.8, 15 - k);
+      total += scaled[mask];
+    }
+    int[] small = new int[MASKS], large = new int[MASKS];
+    int smalls = 0, larges = 0;
+    for (int mask = 0; mask < MASKS; mask++) {
+      scaled[mask] *= MASKS / total;
+      if (scaled[mask] < 1) small[smalls++] = mask;
+      else large[larges++] = mask;
+    }
+    while (smalls > 0 && larges > 0) {
+      int less = small[--smalls], more = large[--larges];
+      THRESHOLD[less] = Math.round(scaled[less] * 0x1p32);
+      ALIAS[less] = (short) more;
+      scaled[more] += scaled[less] - 1;
+      if (scaled[more] < 1) small[smalls++] = more;
+      else large[larges++] = more;
+    }
+    // what is left has probability 1 up to rounding
+    while (larges > 0) THRESHOLD[large[--larges]] = 1L << 32;
+    while (smalls > 0) THRESHOLD[small[--smalls]] = 1L << 32;
+  }
+
+  /**
+   * Returns the mask of the pits (in the BitMap layout) selected by a random long.
+   *
+   * @param bits A uniformly random long.
+   * @return The mask of the pits.
+   */
+  public static int pits(long bits) {
+    return BitMaps.expand(compressedPits(bits));
+  }
+
+  /**
+   * Returns the compressed mask (see BitMaps.compress) of the pits selected by a random long.
+   *
+   * @param bits A uniformly random long.
+   * @return The compressed mask of the pits.
+   */
+  private static int compressedPits(long bits) {
+    int column = (int) bits & MASKS - 1;
+    int mask = (bits >>> 32) < THRESHOLD[column] ? column : ALIAS[column] & MASKS - 1;
+    // the 15 bits are the compressed cells after the origin
+    return mask << 1;
+  }
+
+  /**
+   * Draws a random level, packed into an int: bits 0-18 hold the mask of the pits,
+   * bits 20-24 the cell (row * 5 + col) of the Wumpus and bits 25-29 the cell of the gold.
+   *
+   * @param random The random source to draw from.
+   * @return The packed level.
+   */
+  public static int draw(RandomGenerator random) {
+    int pits = compressedPits(random.nextLong()), empty = 0xFFFE & ~pits;
+    int free = BitMaps.popcount(empty); // at least 2, since there are at most 13 pits
+    long bits = random.nextLong();
+    // multiply-shift maps the 32 bits to [0, free) without division
+    int wumpus = nthBit(empty, (int) ((bits & 0xFFFFFFFFL) * free >>> 32));
+    int gold = nthBit(empty & ~(1 << wumpus), (int) ((bits >>> 32) * (free - 1) >>> 32));
+    return BitMaps.expand(pits) | (wumpus + wumpus / 4) << 20 | (gold + gold / 4) << 25;
+  }
+
+  /**
+   * Generates a random level.
+   *
+   * @param random The random source to draw from.
+   * @return A new Level object.
+   */
+  public static Level generateLevel(RandomGenerator random) {
+    return unpack(draw(random));
+  }
+
+  /**
+   * Constructs the level of a packed level, as returned by draw().
+   *
+   * @param level The packed level.
+   * @return A new Level object.
+   */
+  public static Level unpack(int level) {
+    int wumpus = level >>> 20 & 31, gold = level >>> 25;
+    return new Level(new BitMap(level & BitMaps.FULL), new Coordinate(wumpus / 5, wumpus % 5),
+        new Coordinate(gold / 5, gold % 5));
+  }
+
+  /**
+   * Sets every game of a LevelBatch to a random level.
+   *
+   * @param batch  The batch.
+   * @param random The random source to draw from.
+   */
+  public static void generate(LevelBatch batch, RandomGenerator random) {
+    for (int i = 0; i < batch.size(); i++) {
+      int level = draw(random);
+      batch.set(i, level & BitMaps.FULL, level >>> 20 & 31, level >>> 25);
+    }
+  }
+
+  /**
+   * Returns the index of the n-th lowest set bit of a compressed mask, with one lookup in the table of its lower or
+   * upper byte, chosen without a branch.
+   *
+   * @param mask The compressed mask, 16 bits.
+   * @param n    The rank of the bit, from 0, which must be less than the number of bits set.
+   * @return The index of the bit, in the compressed layout.
+   */
+  private static int nthBit(int mask, int n) {
+    int count = Integer.bitCount(mask & 0xFF), upper = count - n - 1 >> 31 & 8; // 8 if the bit is in the upper byte
+    return upper + SELECT[(mask >>> upper & 0xFF) << 3 | n - (count & -upper >> 31)];
+  }
+
+  /**
+   * Returns the chi-squared statistic of two samples of counts over the same categories.
+   *
+   * @param a The counts of the first sample.
+   * @param b The counts of the second sample, of the same size.
+   * @return The statistic.
+   */
+  private static double chiSquared(long[] a, long[] b) {
+    double statistic = 0;
+    for (int i = 0; i < a.length; i++)
+      if (a[i] + b[i] > 0) statistic += (double) (a[i] - b[i]) * (a[i] - b[i]) / (a[i] + b[i]);
+    return statistic;
+  }
+
+  /**
+   * Prints a chi-squared test of two samples, against the critical value at the 0.1% level
+   * (Wilson-Hilferty approximation).
+   *
+   * @param name The name of the tested statistic.
+   * @param a    The counts of the first sample.
+   * @param b    The counts of the second sample.
+   * @return Whether the samples pass the test.
+   */
+  private static boolean test(String name, long[] a, long[] b) {
+    int degrees = -1;
+    for (int i = 0; i < a.length; i++) if (a[i] + b[i] > 0) degrees++;
+    double h = 2.0 / (9 * degrees), critical = degrees * Math.pow(1 - h + 3.09 * Math.sqrt(h), 3);
+    double statistic = chiSquared(a, b);
+    System.out.printf("%-12s chi2 = %10.2f, df = %3d, critical = %7.2f %s%n", name, statistic, degrees, critical,
+        statistic < critical ? "ok" : "FAIL");
+    return statistic < critical;
+  }
+
+  /**
+   * Main method to compare the generator with Level.generateLevel() from the command line:
+   * two-sample chi-squared tests of the number of pits, the pits of every cell, the cell of the Wumpus, the cell of
+   * the gold and the joint cells of the Wumpus and the gold, then the speed of both generators.
+   * The reference sample is drawn by LevelBatch.generate(), which draws exactly like Level.generateLevel().
+   *
+   * @param args Command line arguments: the number of levels per sample (default 10000000).
+   */
+  public static void main(String[] args) {
+    int levels = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+    RandomGenerator fastRandom = new SplittableRandom(1), slowRandom = new SplittableRandom(2);
+    LevelBatch reference = new LevelBatch(1);
+    long[][] fast = new long[5][], slow = new long[5][];
+    for (long[][] counts : new long[][][]{fast, slow}) {
+      counts[0] = new long[16];
+      counts[1] = new long[20];
+      counts[2] = new long[20];
+      counts[3] = new long[20];
+      counts[4] = new long[400];
+      for (int i = 0; i < levels; i++) {
+        int level;
+        if (counts == fast) level = draw(fastRandom);
+        else {
+          reference.generate(0, slowRandom);
+          level = reference.getPits(0) | reference.getWumpus(0) << 20 | reference.getGold(0) << 25;
+        }
+        int pits = level & BitMaps.FULL, wumpus = level >>> 20 & 31, gold = level >>> 25;
+        counts[0][BitMaps.popcount(pits)]++;
+        for (int cells = pits; cells != 0; cells &= cells - 1) counts[1][Integer.numberOfTrailingZeros(cells)]++;
+        counts[2][wumpus]++;
+        counts[3][gold]++;
+        counts[4][20 * wumpus + gold]++;
+      }
+    }
+    boolean passed = test("pit count", fast[0], slow[0]) & test("pit cells", fast[1], slow[1]) &
+        test("wumpus", fast[2], slow[2]) & test("gold", fast[3], slow[3]) & test("wumpus, gold", fast[4], slow[4]);
+    System.out.println(passed ? "All tests passed. " : "Some tests failed. ");
+    int sink = 0;
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < levels; i++) sink += Level.generateLevel(slowRandom).getAgentCoord().hashCode();
+      long middle = System.nanoTime();
+      for (int i = 0; i < levels; i++) sink += generateLevel(fastRandom).getAgentCoord().hashCode();
+      long end = System.nanoTime();
+      for (int i = 0; i < levels; i++) sink += draw(fastRandom);
+      long packed = System.nanoTime();
+      System.out.printf("Level.generateLevel: %.1f ns, generateLevel: %.1f ns, draw: %.1f ns (%d)%n",
+          (double) (middle - start) / levels, (double) (end - middle) / levels, (double) (packed - end) / levels,
+          sink & 1);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+import java.util.function.IntConsumer;
+
+/**
+ * Represents a bitmap of a Board of up to 64 cells (e.g. up to 8x8), backed by a single long.
+ * Cell row * columns + col is stored in bit row * columns + col.
+ */
+public class LongBitMap implements BoardMap {
+  private final Board board;
+  private long value;
+
+  /**
+   * Constructs an empty bitmap of the specified board.
+   *
+   * @param board The board, which must have at most 64 cells.
+   */
+  public LongBitMap(Board board) {
+    this(board, 0);
+  }
+
+  /**
+   * Constructs a bitmap of the specified board with the given value.
+   *
+   * @param board The board, which must have at most 64 cells.
+   * @param value The value of the bitmap.
+   */
+  public LongBitMap(Board board, long value) {
+    if (board.getWords() != 1) throw new IllegalArgumentException("Board " + board + " does not fit in a long. ");
+    this.board = board;
+    this.value = value & board.getFull()[0];
+  }
+
+  /**
+   * Returns the value of the other map, which must belong to the same board.
+   *
+   * @param other The other map.
+   * @return The value of the other map.
+   */
+  private long valueOf(BoardMap other) {
+    if (other.getBoard() != this.board) throw new IllegalArgumentException("Maps of different boards. ");
+    return ((LongBitMap) other).value;
+  }
+
+  public Board getBoard() {
+    return this.board;
+  }
+
+  /**
+   * Returns the value of the bitmap.
+   *
+   * @return The value of the bitmap.
+   */
+  public long getValue() {
+    return this.value;
+  }
+
+  public boolean get(Coordinate coordinate) {
+    return this.get(this.board.index(coordinate));
+  }
+
+  public boolean get(int index) {
+    return (this.value >>> index & 1) == 1;
+  }
+
+  public void update(Coordinate coordinate) {
+    this.value |= 1L << this.board.index(coordinate);
+  }
+
+  public void update(BoardMap other) {
+    this.value |= this.valueOf(other);
+  }
+
+  public void remove(Coordinate coordinate) {
+    this.value &= ~(1L << this.board.index(coordinate));
+  }
+
+  public void filter(BoardMap other) {
+    this.value &= this.valueOf(other);
+  }
+
+  public BoardMap and(BoardMap other) {
+    return new LongBitMap(this.board, this.value & this.valueOf(other));
+  }
+
+  public BoardMap or(BoardMap other) {
+    return new LongBitMap(this.board, this.value | this.valueOf(other));
+  }
+
+  public BoardMap subtract(BoardMap other) {
+    return new LongBitMap(this.board, this.value & ~this.valueOf(other));
+  }
+
+  public BoardMap not() {
+    return new LongBitMap(this.board, ~this.value);
+  }
+
+  /**
+   * Outputs a bitmap featuring all the orthogonal neighbors of all the cells in this bitmap.
+   * Shifts by the number of columns as up or down and by 1 as left and right;
+   * the column masks drop the bits that would wrap around into the neighboring row.
+   *
+   * @return A new bitmap representing the neighbors of this bitmap.
+   */
+  public BoardMap getNeighbors() {
+    long value = this.value;
+    int columns = this.board.getColumns();
+    // shifting in two steps keeps a shift by all 64 bits (a single row of 64 columns) from being a no-op.
+    return new LongBitMap(this.board,
+        (value << 1 & this.board.getNotFirstColumn()[0]) | (value >>> 1 & this.board.getNotLastColumn()[0]) |
+            value << 1 << columns - 1 | value >>> 1 >>> columns - 1);
+  }
+
+  public int size() {
+    return Long.bitCount(this.value);
+  }
+
+  public boolean isEmpty() {
+    return this.value == 0;
+  }
+
+  public void forEach(IntConsumer action) {
+    for (long remaining = this.value; remaining != 0; remaining &= remaining - 1)
+      action.accept(Long.numberOfTrailingZeros(remaining));
+  }
+
+  public BoardMap copy() {
+    return new LongBitMap(this.board, this.value);
+  }
+
+  /**
+   * Returns the hash code of the bitmap.
+   *
+   * @return The hash code of the bitmap.
+   */
+  public int hashCode() {
+    return Long.hashCode(this.value);
+  }
+
+  /**
+   * Checks if two bitmaps belong to the same board and have the same cells.
+   *
+   * @param other The other object to compare with.
+   * @return true if the bitmaps are equal, false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other == null || other.getClass() != this.getClass()) return false;
+    LongBitMap bitmap = (LongBitMap) other;
+    return this.board == bitmap.board && this.value == bitmap.value;
+  }
+
+  /**
+   * Returns a string representation of the bitmap. Bits are represented as "." for off and "#" for on.
+   *
+   * @return The string representation of the bitmap.
+   */
+  public String toString() {
+    return this.toString(".", "#");
+  }
+}
@@ -0,0 +1,179 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A machine mode of the text interface, for scripts and external agents that drive the game through pipes.
+ * <p>
+ * Every input line holds one or more actions separated by whitespace, and every action is answered by exactly one
+ * percept line. Actions are case-insensitive: a direction (UP, DOWN, LEFT, RIGHT, or U, D, L, R) moves,
+ * S followed by a direction (e.g. SU or SUP) shoots, O observes, and N starts a new game.
+ * The first game starts before the first action; after a game ends, actions are ignored until N.
+ * <p>
+ * A percept line reads "BSG row,col score EVENT": the first three characters are B, S and G for a breeze, a stench
+ * and glitter, or - for each one not detected. The event is OK (moved or observed), WALL (hit a wall),
+ * HIT or MISS (shot), NOARROW, WUMPUS, PIT or WIN (the game ended), OVER (the game had ended), NEW (new game),
+ * or ERR (invalid action).
+ * <p>
+ * There are no prompts, and the output is only flushed when no more input is buffered: a piped file is answered in
+ * large writes, while an agent waiting for the answer to its last line is answered at once.
+ */
+class MachineTUI {
+  private final RandomGenerator random;
+  private final Writer out;
+  private final StringBuilder line = new StringBuilder();
+  private Level level;
+
+  /**
+   * Constructs a MachineTUI and starts the first game.
+   *
+   * @param random The random source to generate the levels from.
+   * @param out    The output of the percept lines, which is buffered by the caller.
+   */
+  public MachineTUI(RandomGenerator random, Writer out) {
+    this.random = random;
+    this.out = out;
+    this.level = Level.generateLevel(random);
+  }
+
+  /**
+   * Returns the current level.
+   *
+   * @return The current level.
+   */
+  public Level getLevel() {
+    return this.level;
+  }
+
+  /**
+   * Processes every line of an input, flushing the output whenever the input has no more buffered lines.
+   *
+   * @param in The input.
+   * @throws IOException If the input cannot be read or the output cannot be written.
+   */
+  public void run(BufferedReader in) throws IOException {
+    for (String line = in.readLine(); line != null; line = in.readLine()) {
+      this.process(line);
+      if (!in.ready()) this.out.flush();
+    }
+    this.out.flush();
+  }
+
+  /**
+   * Performs the actions of a line, and writes a percept line for each one.
+   *
+   * @param actions The actions, separated by whitespace.
+   * @throws IOException If the output cannot be written.
+   */
+  public void process(String actions) throws IOException {
+    int length = actions.length();
+    for (int start = 0; start < length; ) {
+      while (start < length && Character.isWhitespace(actions.charAt(start))) start++;
+      int end = start;
+      while (end < length && !Character.isWhitespace(actions.charAt(end))) end++;
+      if (end > start) this.perform(actions.substring(start, end).toUpperCase());
+      start = end;
+    }
+  }
+
+  /**
+   * Performs a single action and writes its percept line.
+   *
+   * @param action The action, in upper case.
+   * @throws IOException If the output cannot be written.
+   */
+  private void perform(String action) throws IOException {
+    String event;
+    if (action.equals("N")) {
+      this.level = Level.generateLevel(this.random);
+      event = "NEW";
+    } else if (action.equals("O")) {
+      event = this.level.hasEnded() ? "OVER" : "OK";
+    } else {
+      boolean shoot = action.length() > 1 && action.charAt(0) == 'S';
+      Direction direction = direction(shoot ? action.substring(1) : action);
+      if (direction == null) event = "ERR";
+      else if (this.level.hasEnded()) event = "OVER";
+      else if (shoot) event = !this.level.shoot(direction) ? "NOARROW" : this.level.hasWumpus() ? "MISS" : "HIT";
+      else if (!this.level.move(direction)) event = "WALL";
+      else event = this.level.hasEnded() ? this.level.endType().name() : "OK";
+    }
+    this.write(event);
+  }
+
+  /**
+   * Parses a direction from its name or its initial.
+   *
+   * @param direction The name or initial of the direction, in upper case.
+   * @return The direction, or null if invalid.
+   */
+  private static Direction direction(String direction) {
+    switch (direction) {
+      case "U":
+      case "UP":
+        return Direction.UP;
+      case "D":
+      case "DOWN":
+        return Direction.DOWN;
+      case "L":
+      case "LEFT":
+        return Direction.LEFT;
+      case "R":
+      case "RIGHT":
+        return Direction.RIGHT;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Writes the percept line of the current state.
+   *
+   * @param event The event of the last action.
+   * @throws IOException If the output cannot be written.
+   */
+  private void write(String event) throws IOException {
+    Coordinate agent = this.level.getAgentCoord();
+    this.line.setLength(0);
+    this.line.append(this.level.detectsBreeze() ? 'B' : '-').append(this.level.detectsStench() ? 'S' : '-')
+        .append(this.level.detectsGlitter() ? 'G' : '-').append(' ').append(agent.getRow()).append(',')
+        .append(agent.getColumn()).append(' ').append(this.level.getScore()).append(' ').append(event).append('\n');
+    this.out.append(this.line);
+  }
+
+  /**
+   * Main method to run the machine mode.
+   *
+   * @param args Command line arguments: optionally --seed SEED to generate the levels from a seed (random by
+   *             default), then the paths of files of actions, which are processed in order as one input
+   *             (standard input by default).
+   * @throws IOException If an input cannot be read or the output cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    int first = 0;
+    RandomGenerator random = new SplittableRandom();
+    if (args.length > 1 && args[0].equals("--seed")) {
+      random = new SplittableRandom(Long.parseLong(args[1]));
+      first = 2;
+    }
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+    MachineTUI tui = new MachineTUI(random, out);
+    if (first == args.length) {
+      tui.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16));
+      return;
+    }
+    for (int i = first; i < args.length; i++) {
+      try (BufferedReader in = Files.newBufferedReader(Path.of(args[i]))) {
+        tui.run(in);
+      }
+    }
+  }
+}
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * Main class to run the Wumpus game.
  */
@@ -5,9 +8,15 @@ public class Main {
   /**
    * Main method to start the game.
    *
-   * @param args Command line arguments. Ignored.
+   * @param args Command line arguments: none for the interactive game, or --machine followed by the arguments of
+   *             MachineTUI.main for the machine mode.
+   * @throws IOException If the machine mode cannot read its input or write its output.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0 && args[0].equals("--machine")) {
+      MachineTUI.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
     while (true) {
       TUI play = new TUI();
       while (!play.getLevel().hasEnded()) play.action();
@@ -0,0 +1,98 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Answers shortest safe path queries in O(1) amortized time.
+ * For every safe mask that is queried, the distances and first steps between all pairs of cells are computed once
+ * with bit-parallel BFS layers and memoized, so repeated queries (e.g. inside a sort, or every step of a game)
+ * are a single table lookup. The answers agree with BFS.distance and BFS.direction.
+ */
+public class PathOracle {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final byte UNREACHABLE = -1;
+  // indexed by the compressed safe mask; each table is indexed by from * 16 + to (compressed cell indices)
+  // and holds distance << 2 | direction ordinal, or UNREACHABLE.
+  private static final AtomicReferenceArray<byte[]> tables = new AtomicReferenceArray<>(1 << 16);
+
+  /**
+   * Finds the length of the shortest safe path between two cells.
+   *
+   * @param from the index (Coordinate.hashCode()) of the starting cell.
+   * @param to   the index of the target cell.
+   * @param safe a mask representing safe cells.
+   * @return the length of the path, or Integer.MAX_VALUE if no path exists.
+   */
+  public static int distance(int from, int to, int safe) {
+    byte entry = lookup(from, to, safe);
+    return entry == UNREACHABLE ? Integer.MAX_VALUE : entry >> 2;
+  }
+
+  /**
+   * Finds the first step of the shortest safe path between two cells.
+   *
+   * @param from the index (Coordinate.hashCode()) of the starting cell.
+   * @param to   the index of the target cell.
+   * @param safe a mask representing safe cells.
+   * @return the first direction of the path, or null if no path exists or the cells are equal.
+   */
+  public static Direction direction(int from, int to, int safe) {
+    byte entry = lookup(from, to, safe);
+    return entry == UNREACHABLE || entry >> 2 == 0 ? null : DIRECTIONS[entry & 3];
+  }
+
+  /**
+   * Returns the table entry of a query, computing the table of the safe mask if necessary.
+   *
+   * @param from the index of the starting cell.
+   * @param to   the index of the target cell.
+   * @param safe a mask representing safe cells.
+   * @return the table entry.
+   */
+  private static byte lookup(int from, int to, int safe) {
+    int key = BitMaps.compress(safe);
+    byte[] table = tables.get(key);
+    if (table == null) {
+      tables.compareAndSet(key, null, compute(BitMaps.expand(key)));
+      table = tables.get(key);
+    }
+    return table[(from - from / 5) << 4 | to - to / 5];
+  }
+
+  /**
+   * Computes the table of a safe mask.
+   * For every target, the BFS layers around it are expanded once;
+   * the distance from a cell is then one more than the first layer that touches its neighbors.
+   *
+   * @param safe a mask representing safe cells.
+   * @return the table of the safe mask.
+   */
+  private static byte[] compute(int safe) {
+    byte[] table = new byte[256];
+    int[] layers = new int[16];
+    for (int to = 0; to < 16; to++) {
+      int target = BitMaps.expand(1 << to);
+      int count = 0;
+      for (int layer = target & safe, visited = layer; layer != 0; visited |= layer) {
+        layers[count++] = layer;
+        layer = BitMaps.neighbors(layer) & safe & ~visited;
+      }
+      for (int from = 0; from < 16; from++) {
+        int start = BitMaps.expand(1 << from);
+        byte entry = UNREACHABLE;
+        if (from == to) entry = 0;
+        else {
+          int neighbors = BitMaps.neighbors(start);
+          for (int layer = 0; layer < count; layer++) {
+            if ((layers[layer] & neighbors) != 0) {
+              int direction = 0;
+              while ((BitMaps.move(start, DIRECTIONS[direction]) & layers[layer]) == 0) direction++;
+              entry = (byte) ((layer + 1) << 2 | direction);
+              break;
+            }
+          }
+        }
+        table[from << 4 | to] = entry;
+      }
+    }
+    return table;
+  }
+}
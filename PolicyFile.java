@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongToIntFunction;
+
+/**
+ * A policy (state key to action) stored in a compact binary file and read through a memory-mapped buffer.
+ * <p>
+ * The file holds a header (the magic number and the number of entries, one int each), then the keys as sorted longs,
+ * then the actions as one byte each, in the order of the keys. Lookups binary search the keys with absolute reads
+ * of the mapped buffer, so opening a policy copies nothing to the heap, and many threads (or JVMs, through the page
+ * cache) can share one policy. All integers are big-endian.
+ */
+public class PolicyFile implements LongToIntFunction {
+  private static final int MAGIC = 0x57504F4C; // "WPOL"
+  private static final int HEADER = 8;
+  private final MappedByteBuffer buffer;
+  private final int size, actions; // the number of entries, and the offset of the actions
+
+  /**
+   * Constructs a PolicyFile over a mapped buffer.
+   *
+   * @param buffer The mapped file.
+   */
+  private PolicyFile(MappedByteBuffer buffer) {
+    if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) throw new IllegalArgumentException("Not a policy file. ");
+    this.buffer = buffer;
+    this.size = buffer.getInt(4);
+    if (this.size < 0) throw new IllegalArgumentException("Invalid policy size: " + this.size);
+    // the offsets are computed in longs, as 9 * size overflows an int for a corrupt size
+    if (buffer.capacity() != length(this.size)) throw new IllegalArgumentException("Truncated policy file. ");
+    this.actions = (int) (HEADER + 8L * this.size); // below the capacity, so every offset fits in an int
+  }
+
+  /**
+   * Returns the length of a policy file.
+   *
+   * @param size The number of entries.
+   * @return The length of the file in bytes.
+   */
+  private static long length(int size) {
+    return HEADER + 9L * size;
+  }
+
+  /**
+   * Maps a policy file read-only.
+   *
+   * @param path The path of the file.
+   * @return The mapped policy.
+   * @throws IOException If the file cannot be read.
+   */
+  public static PolicyFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) throw new IllegalArgumentException("Policy file too large: " + path);
+      // the mapping stays valid after the channel is closed
+      return new PolicyFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes a policy file.
+   *
+   * @param path    The path of the file, which is replaced if it exists.
+   * @param keys    The keys of the states, without duplicates. The array is not modified.
+   * @param actions The policy, which maps every key to an action between 0 and 255.
+   * @throws IOException If the file cannot be written.
+   */
+  public static void write(Path path, long[] keys, LongToIntFunction actions) throws IOException {
+    long length = length(keys.length);
+    if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many keys: " + keys.length);
+    long[] sorted = keys.clone();
+    Arrays.sort(sorted);
+    ByteBuffer buffer = ByteBuffer.allocate((int) length);
+    buffer.putInt(MAGIC).putInt(sorted.length);
+    for (int i = 0; i < sorted.length; i++) {
+      if (i > 0 && sorted[i] == sorted[i - 1]) throw new IllegalArgumentException("Duplicate key: " + sorted[i]);
+      buffer.putLong(sorted[i]);
+    }
+    for (long key : sorted) {
+      int action = actions.applyAsInt(key);
+      if (action < 0 || action > 255) throw new IllegalArgumentException("Invalid action: " + action);
+      buffer.put((byte) action);
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) channel.write(buffer);
+    }
+  }
+
+  /**
+   * Returns the action of a state.
+   *
+   * @param key The key of the state.
+   * @return The action of the state, or -1 if the state is not in the policy.
+   */
+  public int action(long key) {
+    int low = 0, high = this.size - 1;
+    while (low <= high) {
+      int middle = low + high >>> 1;
+      long stored = this.buffer.getLong(HEADER + 8 * middle);
+      if (stored < key) low = middle + 1;
+      else if (stored > key) high = middle - 1;
+      else return this.buffer.get(this.actions + middle) & 0xFF;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the action of a state, so that the policy can be passed as a function.
+   *
+   * @param key The key of the state.
+   * @return The action of the state, or -1 if the state is not in the policy.
+   */
+  public int applyAsInt(long key) {
+    return this.action(key);
+  }
+
+  /**
+   * Returns the number of states in the policy.
+   *
+   * @return The number of states.
+   */
+  public int size() {
+    return this.size;
+  }
+}
@@ -0,0 +1,127 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A bot that plays from a QTable learned with tabular Q-learning, and optionally keeps learning while it plays.
+ * A state is the ID of the observed level state together with the position of the agent,
+ * since the ID alone does not say where the agent stands.
+ * Actions 0 to 3 move in the direction with that ordinal, actions 4 to 7 shoot in it.
+ * Moves into a wall and shots without an arrow are never chosen, since they change nothing.
+ * The reward of an action is the change of the score.
+ * The observations are updated by the caller after every action, so the value of an action that did not end the game
+ * is learned at the start of the next action, once the next state is known.
+ */
+public class QLearningBot extends RandomBot {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private final QTable table;
+  private final float epsilon, alpha, gamma;
+  // the last action whose value is not learned yet, in slot pendingSlot (-1 if none), and its reward
+  private int pendingSlot = -1, pendingAction;
+  private float pendingReward;
+
+  /**
+   * Constructs a QLearningBot that greedily plays from a table without learning.
+   * States missing from the table are played randomly.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   * @param table   The learned table.
+   */
+  public QLearningBot(BackEnd backEnd, RandomGenerator random, QTable table) {
+    this(backEnd, random, table, 0, 0, 1);
+  }
+
+  /**
+   * Constructs a QLearningBot that learns while it plays.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   * @param table   The table to learn into, which may be shared with other bots on other threads.
+   * @param epsilon The probability of a random action instead of the best one.
+   * @param alpha   The learning rate, or 0 to not learn.
+   * @param gamma   The discount factor.
+   */
+  public QLearningBot(BackEnd backEnd, RandomGenerator random, QTable table, float epsilon, float alpha, float gamma) {
+    super(backEnd, random);
+    this.table = table;
+    this.epsilon = epsilon;
+    this.alpha = alpha;
+    this.gamma = gamma;
+  }
+
+  /**
+   * Makes an epsilon-greedy action, and learns from its outcome if the learning rate is not 0.
+   */
+  public void action() {
+    Level level = this.getBackEnd().getLevel();
+    boolean learning = this.alpha != 0;
+    long key = this.getStateKey();
+    int allowed = this.getAllowedActions();
+    int slot = learning ? this.table.slot(key) : this.table.find(key);
+    if (this.pendingSlot != -1) {
+      float target = this.pendingReward;
+      if (slot != -1) target += this.gamma * this.table.get(slot, this.table.best(slot, allowed));
+      this.table.update(this.pendingSlot, this.pendingAction, target, this.alpha);
+      this.pendingSlot = -1;
+    }
+    int action;
+    if (slot == -1 || this.epsilon != 0 && this.getRandom().nextFloat() < this.epsilon) action = this.randomAction(allowed);
+    else action = this.table.best(slot, allowed);
+    int score = level.getScore();
+    if (action < 4) level.move(DIRECTIONS[action]);
+    else level.shoot(DIRECTIONS[action - 4]);
+    if (!learning || slot == -1) return;
+    float reward = level.getScore() - score;
+    if (level.hasEnded()) {
+      this.table.update(slot, action, reward, this.alpha);
+    } else {
+      this.pendingSlot = slot;
+      this.pendingAction = action;
+      this.pendingReward = reward;
+    }
+  }
+
+  /**
+   * Returns the key of the current state: the packed ID in bits 0-55 and the cell of the agent (4 * row + col)
+   * in bits 56-59.
+   *
+   * @return The key of the current state.
+   */
+  public long getStateKey() {
+    int position = this.getBackEnd().getLevel().getAgentCoord().hashCode();
+    return this.getBackEnd().getKey() | (long) (position - position / 5) << 56;
+  }
+
+  /**
+   * Returns the mask of the actions that change the state: moves that stay on the grid, and shots if the arrow is left.
+   *
+   * @return The mask of allowed actions (bit i for action i).
+   */
+  public int getAllowedActions() {
+    Level level = this.getBackEnd().getLevel();
+    int position = BitMaps.of(level.getAgentCoord()), allowed = 0;
+    for (Direction direction : DIRECTIONS)
+      if (BitMaps.move(position, direction) != 0) allowed |= 1 << direction.ordinal();
+    if (level.hasArrow()) allowed |= 0xF0;
+    return allowed;
+  }
+
+  /**
+   * Returns a uniformly random allowed action.
+   *
+   * @param allowed The mask of allowed actions.
+   * @return A random allowed action.
+   */
+  private int randomAction(int allowed) {
+    for (int skip = this.getRandom().nextInt(Integer.bitCount(allowed)); skip > 0; skip--) allowed &= allowed - 1;
+    return Integer.numberOfTrailingZeros(allowed);
+  }
+
+  /**
+   * Returns the table of the bot.
+   *
+   * @return The table of the bot.
+   */
+  public QTable getTable() {
+    return this.table;
+  }
+}
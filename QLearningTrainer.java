@@ -0,0 +1,84 @@
+/**
+ * Trains a QLearningBot over many episodes on every core, and evaluates the greedy policy between rounds.
+ * Episodes are played by a Tournament, so they run in parallel on the common fork-join pool,
+ * and every thread learns into the same lock-free QTable.
+ */
+public class QLearningTrainer {
+  private final QTable table;
+  private final float epsilon, alpha, gamma;
+  private final int maxSteps;
+
+  /**
+   * Constructs a QLearningTrainer with an empty table.
+   *
+   * @param capacity The number of slots of the table.
+   * @param epsilon  The probability of a random action while training.
+   * @param alpha    The learning rate.
+   * @param gamma    The discount factor.
+   * @param maxSteps The maximum number of actions per episode.
+   */
+  public QLearningTrainer(int capacity, float epsilon, float alpha, float gamma, int maxSteps) {
+    this.table = new QTable(capacity);
+    this.epsilon = epsilon;
+    this.alpha = alpha;
+    this.gamma = gamma;
+    this.maxSteps = maxSteps;
+  }
+
+  /**
+   * Trains over the specified number of episodes in parallel. Episode i is played with the seed baseSeed + i.
+   *
+   * @param episodes The number of episodes.
+   * @param baseSeed The seed of the first episode.
+   * @return The results of the (exploring) training episodes.
+   */
+  public Tournament.Result train(long episodes, long baseSeed) {
+    return new Tournament((backEnd, random) -> new QLearningBot(backEnd, random, this.table, this.epsilon, this.alpha,
+        this.gamma), this.maxSteps).run(episodes, baseSeed);
+  }
+
+  /**
+   * Plays the greedy policy of the table without learning.
+   *
+   * @param games    The number of games.
+   * @param baseSeed The seed of the first game.
+   * @return The results of the games.
+   */
+  public Tournament.Result evaluate(long games, long baseSeed) {
+    return new Tournament((backEnd, random) -> new QLearningBot(backEnd, random, this.table), this.maxSteps)
+        .run(games, baseSeed);
+  }
+
+  /**
+   * Returns the table being trained.
+   *
+   * @return The table being trained.
+   */
+  public QTable getTable() {
+    return this.table;
+  }
+
+  /**
+   * Main method to train from the command line.
+   * Evaluation games use seeds far away from the training seeds, so the policy is evaluated on unseen levels.
+   *
+   * @param args Command line arguments: the number of rounds (default 10), the number of training episodes per round
+   *             (default 10000000), the number of evaluation games per round (default 1000000)
+   *             and the capacity of the table (default 2^22).
+   */
+  public static void main(String[] args) {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    long episodes = args.length > 1 ? Long.parseLong(args[1]) : 10000000;
+    long games = args.length > 2 ? Long.parseLong(args[2]) : 1000000;
+    int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 1 << 22;
+    QLearningTrainer trainer = new QLearningTrainer(capacity, 0.1f, 0.05f, 1, 1000);
+    for (int round = 0; round < rounds; round++) {
+      Tournament.Result training = trainer.train(episodes, round * episodes);
+      Tournament.Result evaluation = trainer.evaluate(games, Long.MIN_VALUE + round * games);
+      QTable table = trainer.getTable();
+      System.out.printf("Round %d: %.1f episodes/sec, training mean %.3f, greedy mean %.3f, %d states, " +
+              "%d inserts refused%n", round, training.getGamesPerSecond(), training.getMean(), evaluation.getMean(),
+          table.size(), table.getRefused());
+    }
+  }
+}
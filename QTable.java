@@ -0,0 +1,153 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-capacity open-addressing hash table from long keys to the values of the 8 actions of a state
+ * (the 4 moves and the 4 shots, see QLearningBot), for tabular Q-learning.
+ * Keys live in an AtomicLongArray and are claimed with compare-and-set, so many threads can insert concurrently
+ * without locks. Values live in one flat float array, 8 per slot, and are updated without synchronization
+ * ("Hogwild!" style): a racing update may be lost, which only adds a little noise to the learning.
+ * Key 0 marks an empty slot, so it cannot be stored; IDs never pack to 0, since the origin is always loaded.
+ * <p>
+ * A key is only looked for in the MAX_PROBES slots from its hash, and new keys are refused once 3/4 of the slots are
+ * used (racing inserts may overshoot by one per thread), so a lookup stays short however many states show up.
+ * A refused key is reported as missing, and the refusals are counted so that a trainer can tell the table is too small.
+ */
+public class QTable {
+  /**
+   * The number of actions, i.e. values per key.
+   */
+  public static final int ACTIONS = 8;
+  /**
+   * The number of slots a key is looked for in.
+   */
+  public static final int MAX_PROBES = 32;
+  private final AtomicLongArray keys;
+  private final float[] values;
+  private final int mask, limit;
+  private final AtomicInteger size = new AtomicInteger();
+  private final LongAdder refused = new LongAdder();
+
+  /**
+   * Constructs an empty QTable.
+   *
+   * @param capacity The number of slots, which is rounded up to a power of two. The table never grows.
+   */
+  public QTable(int capacity) {
+    int slots = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    this.keys = new AtomicLongArray(slots);
+    this.values = new float[slots * ACTIONS];
+    this.mask = slots - 1;
+    this.limit = slots - slots / 4;
+  }
+
+  /**
+   * Returns the slot of a key, inserting the key with all values 0 if it is not in the table yet.
+   *
+   * @param key The key, which must not be 0.
+   * @return The slot of the key, or -1 if the key is new and was refused.
+   */
+  public int slot(long key) {
+    int probes = Math.min(MAX_PROBES, this.mask + 1);
+    for (int probe = 0, slot = (int) ID.mix(key) & this.mask; probe < probes; probe++, slot = slot + 1 & this.mask) {
+      long stored = this.keys.get(slot);
+      if (stored == key) return slot;
+      if (stored == 0) {
+        if (this.size.get() >= this.limit) break;
+        if (this.keys.compareAndSet(slot, 0, key)) {
+          this.size.incrementAndGet();
+          return slot;
+        }
+        if (this.keys.get(slot) == key) return slot; // another thread inserted the same key
+      }
+    }
+    this.refused.increment();
+    return -1;
+  }
+
+  /**
+   * Returns the slot of a key without inserting it.
+   *
+   * @param key The key, which must not be 0.
+   * @return The slot of the key, or -1 if it is not in the table.
+   */
+  public int find(long key) {
+    int probes = Math.min(MAX_PROBES, this.mask + 1);
+    for (int probe = 0, slot = (int) ID.mix(key) & this.mask; probe < probes; probe++, slot = slot + 1 & this.mask) {
+      long stored = this.keys.get(slot);
+      if (stored == key) return slot;
+      if (stored == 0) return -1;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the value of an action in a slot.
+   *
+   * @param slot   The slot.
+   * @param action The action.
+   * @return The value of the action.
+   */
+  public float get(int slot, int action) {
+    return this.values[slot * ACTIONS + action];
+  }
+
+  /**
+   * Moves the value of an action in a slot towards a target.
+   *
+   * @param slot   The slot.
+   * @param action The action.
+   * @param target The target value.
+   * @param alpha  The learning rate, between 0 and 1.
+   */
+  public void update(int slot, int action, float target, float alpha) {
+    int index = slot * ACTIONS + action;
+    this.values[index] += alpha * (target - this.values[index]);
+  }
+
+  /**
+   * Returns the action with the highest value among the allowed actions of a slot.
+   * Ties go to the lowest action.
+   *
+   * @param slot    The slot.
+   * @param allowed The mask of allowed actions (bit i for action i), which must not be 0.
+   * @return The best allowed action.
+   */
+  public int best(int slot, int allowed) {
+    int best = -1;
+    for (int remaining = allowed; remaining != 0; remaining &= remaining - 1) {
+      int action = Integer.numberOfTrailingZeros(remaining);
+      if (best == -1 || this.get(slot, action) > this.get(slot, best)) best = action;
+    }
+    return best;
+  }
+
+  /**
+   * Returns the number of used slots.
+   *
+   * @return The number of used slots.
+   */
+  public int size() {
+    return this.size.get();
+  }
+
+  /**
+   * Returns the number of inserts refused so far, because the table was 3/4 full or the probes of the key were used.
+   * A key that keeps being refused counts once per attempt.
+   *
+   * @return The number of refused inserts.
+   */
+  public long getRefused() {
+    return this.refused.sum();
+  }
+
+  /**
+   * Returns the number of slots.
+   *
+   * @return The number of slots.
+   */
+  public int capacity() {
+    return this.mask + 1;
+  }
+}
@@ -1,23 +1,38 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * A simple bot that makes random actions.
  */
 public class RandomBot implements BotInterface {
   private final BackEnd backEnd;
+  private final RandomGenerator random;
 
   /**
-   * Constructs a RandomBot with the specified BackEnd.
+   * Constructs a RandomBot with the specified BackEnd and a freshly seeded random source.
    *
    * @param backEnd The BackEnd associated with the bot.
    */
   public RandomBot(BackEnd backEnd) {
+    this(backEnd, new SplittableRandom());
+  }
+
+  /**
+   * Constructs a RandomBot with the specified BackEnd and random source.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   */
+  public RandomBot(BackEnd backEnd, RandomGenerator random) {
     this.backEnd = backEnd;
+    this.random = random;
   }
 
   /**
    * Makes a random action.
    */
   public void action() {
-    this.backEnd.getLevel().move(Direction.random());
+    this.backEnd.getLevel().move(Direction.random(this.random));
   }
 
   /**
@@ -28,4 +43,13 @@ public class RandomBot implements BotInterface {
   public BackEnd getBackEnd() {
     return backEnd;
   }
+
+  /**
+   * Returns the random source associated with the bot.
+   *
+   * @return The random source associated with the bot.
+   */
+  public RandomGenerator getRandom() {
+    return random;
+  }
 }
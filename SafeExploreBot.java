@@ -1,5 +1,4 @@
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.random.RandomGenerator;
 
 public class SafeExploreBot extends SafeReturnBot {
   /**
@@ -11,26 +10,85 @@ public class SafeExploreBot extends SafeReturnBot {
     super(backEnd);
   }
 
+  /**
+   * Constructs a SafeExploreBot with the specified BackEnd and random source.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   */
+  public SafeExploreBot(BackEnd backEnd, RandomGenerator random) {
+    super(backEnd, random);
+  }
+
+  /**
+   * Constructs a SafeExploreBot with the specified BackEnd, random source and belief cache.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   * @param cache   The cache of beliefs shared with other bots, or null to always infer them.
+   */
+  public SafeExploreBot(BackEnd backEnd, RandomGenerator random, BeliefCache cache) {
+    super(backEnd, random, cache);
+  }
+
   /**
    * Makes a safe exploration action.
    */
   public void action() {
     if (!this.getBackEnd().getLevel().hasGold()) super.action();
     else {
-      Coordinate current = this.getBackEnd().getLevel().getAgentCoord();
-      BitMap exploreSquares = this.getSafeSquares().subtract(this.getBackEnd().getLoaded());
-      if (exploreSquares.size() == 0) super.action();
-      else {
-        ArrayList<Coordinate> sortedSquares = exploreSquares.asCoordinates();
-        sortedSquares.sort(Comparator.comparingDouble(a -> -BFS.distance(new Coordinate(), a, this.getSafeSquares())));
-        sortedSquares.sort(Comparator.comparingDouble(a -> -Math.max(Math.abs(a.getRow() - 1.5), Math.abs(a.getColumn() - 1.5))));
-        sortedSquares.sort(Comparator.comparingDouble(a -> BFS.distance(current, a, this.getSafeSquares())));
-        ArrayList<Direction> directions = BFS.directions(current, sortedSquares.get(0), this.getSafeSquares());
-        if (directions == null) super.action(); // just default back to super.action()
-        else if (directions.isEmpty())
-          throw new IllegalStateException("We are on an unexplored square? - something needs updating. ");
-        else this.getBackEnd().getLevel().move(directions.get(0));
+      Direction direction = this.exploreDirection();
+      if (direction == null) super.action(); // just default back to super.action()
+      else this.getBackEnd().getLevel().move(direction);
+    }
+  }
+
+  /**
+   * Returns the first step towards the best safe square that is not explored yet.
+   * The best square is the closest one to the agent; ties prefer squares on the outer ring of the grid,
+   * then squares far away from the start, and then the first square in the order of the BitMap.
+   * Works on int masks with BitMaps, so it does not allocate. The choice is cached in the belief, if any.
+   *
+   * @return the first step towards the best square, or null if there is no reachable one.
+   */
+  public Direction exploreDirection() {
+    int current = this.getBackEnd().getLevel().getAgentCoord().hashCode();
+    int safeSquares = this.getSafeMask();
+    BeliefCache.Belief belief = this.getBelief();
+    if (belief != null && belief.getAction(current) != BeliefCache.Belief.UNKNOWN)
+      return belief.getAction(current) == BeliefCache.Belief.RANDOM ? null : Direction.values()[belief.getAction(current)];
+    Direction direction = this.exploreDirection(current, safeSquares);
+    if (belief != null) belief.setAction(current, direction);
+    return direction;
+  }
+
+  /**
+   * Returns the first step towards the best safe square that is not explored yet.
+   *
+   * @param current     The index (Coordinate.hashCode()) of the agent.
+   * @param safeSquares The mask of the safe squares.
+   * @return the first step towards the best square, or null if there is no reachable one.
+   */
+  private Direction exploreDirection(int current, int safeSquares) {
+    int exploreSquares = BitMaps.subtract(safeSquares, this.getBackEnd().getLoaded().hashCode());
+    int best = -1, bestDistance = 0, bestRing = 0, bestStartDistance = 0;
+    for (int remaining = exploreSquares; remaining != 0; remaining &= remaining - 1) {
+      int square = Integer.numberOfTrailingZeros(remaining);
+      int distance = PathOracle.distance(current, square, safeSquares);
+      // twice the distance to the center of the grid, in the maximum norm
+      int ring = Math.max(Math.abs(2 * (square / 5) - 3), Math.abs(2 * (square % 5) - 3));
+      int startDistance = PathOracle.distance(0, square, safeSquares);
+      if (best == -1 || distance < bestDistance || distance == bestDistance &&
+          (ring > bestRing || ring == bestRing && startDistance > bestStartDistance)) {
+        best = square;
+        bestDistance = distance;
+        bestRing = ring;
+        bestStartDistance = startDistance;
       }
     }
+    if (best == -1) return null;
+    if (best == current)
+      throw new IllegalStateException("We are on an unexplored square? - something needs updating. ");
+    return PathOracle.direction(current, best, safeSquares);
   }
 }
@@ -1,10 +1,16 @@
-import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * A bot that safely returns to the start position once it has the gold.
  */
 public class SafeReturnBot extends RandomBot implements BotInterface {
-  private BitMap nonWumpusSpaces, nonPitSpaces, mustPitSpaces, possibleWumpusSpaces;
+  private int nonWumpusSpaces, nonPitSpaces, mustPitSpaces, possibleWumpusSpaces;
+  // what the loaded cells tell on their own, folded in one cell at a time
+  private int seen = 0, seenNonWumpus = 0, seenNonPit = 0, stenchNeighbors = -1;
+  private long key = 0; // the key of the observations the masks were inferred from, never 0 for a real key
+  private final BeliefCache cache;
+  private BeliefCache.Belief belief;
 
   /**
    * Constructs a RandomBot with the specified BackEnd.
@@ -12,7 +18,29 @@ public class SafeReturnBot extends RandomBot implements BotInterface {
    * @param backEnd The BackEnd associated with the bot.
    */
   public SafeReturnBot(BackEnd backEnd) {
-    super(backEnd);
+    this(backEnd, new SplittableRandom());
+  }
+
+  /**
+   * Constructs a SafeReturnBot with the specified BackEnd and random source.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   */
+  public SafeReturnBot(BackEnd backEnd, RandomGenerator random) {
+    this(backEnd, random, null);
+  }
+
+  /**
+   * Constructs a SafeReturnBot with the specified BackEnd, random source and belief cache.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source the bot draws its random actions from.
+   * @param cache   The cache of beliefs shared with other bots, or null to always infer them.
+   */
+  public SafeReturnBot(BackEnd backEnd, RandomGenerator random, BeliefCache cache) {
+    super(backEnd, random);
+    this.cache = cache;
   }
 
   /**
@@ -27,51 +55,125 @@ public class SafeReturnBot extends RandomBot implements BotInterface {
    * Makes a safe return action to the start position.
    */
   private void safeReturnAction() {
-    Coordinate start = new Coordinate();
-    Coordinate current = this.getBackEnd().getLevel().getAgentCoord();
-    BitMap safeSquares = this.getSafeSquares();
-    ArrayList<Direction> directions = BFS.directions(current, start, safeSquares);
-    if (directions == null) throw new IllegalStateException("No safe path found - shouldn't happen. ");
-    if (directions.isEmpty()) throw new IllegalStateException("We should've already won? ");
-    this.getBackEnd().getLevel().move(directions.get(0));
+    int current = this.getBackEnd().getLevel().getAgentCoord().hashCode();
+    int safeSquares = this.getSafeMask();
+    if (this.belief != null && this.belief.getAction(current) >= 0) {
+      this.getBackEnd().getLevel().move(Direction.values()[this.belief.getAction(current)]);
+      return;
+    }
+    int distance = PathOracle.distance(current, 0, safeSquares);
+    if (distance == Integer.MAX_VALUE) throw new IllegalStateException("No safe path found - shouldn't happen. ");
+    if (distance == 0) throw new IllegalStateException("We should've already won? ");
+    Direction direction = PathOracle.direction(current, 0, safeSquares);
+    if (this.belief != null) this.belief.setAction(current, direction);
+    this.getBackEnd().getLevel().move(direction);
   }
 
   /**
    * Updates the internal state of the bot.
-   * This method updates the nonWumpusSpaces, nonPitSpaces, mustPitSpaces, and possibleWumpusSpaces BitMaps.
+   * This method updates the nonWumpusSpaces, nonPitSpaces, mustPitSpaces, and possibleWumpusSpaces masks.
    * It filters the nonWumpusSpaces and nonPitSpaces based on the current observations of stench and breeze.
    * It also identifies mustPitSpaces based on the breeze observations.
    * Finally, if there is only one possible Wumpus space, it updates the nonPitSpaces accordingly.
+   * Works on int masks with BitMaps, so it does not allocate.
+   * The masks are kept until the observations change, i.e. until the packed key of the observed level state does;
+   * then only the newly loaded cells are folded in, and the rest is derived with a few mask operations.
+   * With a belief cache, the masks are looked up by the packed key of the observed level state and only inferred on a
+   * miss.
    */
   public void update() {
-    this.nonWumpusSpaces = this.getBackEnd().getLoaded().copy();
-    this.nonWumpusSpaces.update(this.getBackEnd().getLoaded().subtract(this.getBackEnd().getStench()).getNeighbors());
-    this.possibleWumpusSpaces = this.nonWumpusSpaces.not();
-    for (Coordinate coordinate : this.getBackEnd().getStench().asCoordinates())
-      this.possibleWumpusSpaces.filter(coordinate.asBitMap().getNeighbors());
-    if (this.possibleWumpusSpaces.size() == 1) this.nonWumpusSpaces = this.possibleWumpusSpaces.not();
-    this.nonPitSpaces = this.getBackEnd().getLoaded().copy();
-    this.nonPitSpaces.update(this.getBackEnd().getLoaded().subtract(this.getBackEnd().getBreeze()).getNeighbors());
-    if (this.possibleWumpusSpaces.size() == 1) this.nonPitSpaces.update(this.possibleWumpusSpaces);
-    this.mustPitSpaces = new BitMap();
-    for (Coordinate coordinate : this.getBackEnd().getBreeze().asCoordinates()) {
-      BitMap pitCandidates = coordinate.asBitMap().getNeighbors().subtract(this.nonPitSpaces);
-      if (pitCandidates.size() == 1) {
-        this.mustPitSpaces.update(pitCandidates);
-        this.possibleWumpusSpaces.subtract(pitCandidates);
-        this.nonWumpusSpaces.update(pitCandidates);
+    long key = this.getBackEnd().getKey();
+    if (key == this.key) return;
+    this.key = key;
+    this.observe();
+    if (this.cache == null) {
+      this.infer();
+      return;
+    }
+    this.belief = this.cache.get(key);
+    if (this.belief == null) {
+      this.infer();
+      this.belief = new BeliefCache.Belief(this.nonWumpusSpaces, this.nonPitSpaces, this.mustPitSpaces,
+          this.possibleWumpusSpaces);
+      this.cache.put(key, this.belief);
+    } else {
+      this.nonWumpusSpaces = this.belief.getNonWumpusSpaces();
+      this.nonPitSpaces = this.belief.getNonPitSpaces();
+      this.mustPitSpaces = this.belief.getMustPitSpaces();
+      this.possibleWumpusSpaces = this.belief.getPossibleWumpusSpaces();
+    }
+  }
+
+  /**
+   * Folds the cells loaded since the last update into the masks of what the loaded cells tell on their own:
+   * a loaded cell is safe, its neighbors are free of the Wumpus without a stench and free of pits without a breeze,
+   * and the Wumpus is a neighbor of every cell with a stench.
+   * Starts over if cells were unloaded, which only happens if the BackEnd started a new game.
+   */
+  private void observe() {
+    int loaded = this.getBackEnd().getLoaded().hashCode();
+    int breeze = this.getBackEnd().getBreeze().hashCode();
+    int stench = this.getBackEnd().getStench().hashCode();
+    if ((this.seen & ~loaded) != 0) {
+      this.seen = this.seenNonWumpus = this.seenNonPit = 0;
+      this.stenchNeighbors = -1;
+    }
+    for (int cells = loaded & ~this.seen; cells != 0; cells &= cells - 1) {
+      int cell = Integer.lowestOneBit(cells), neighbors = BitMaps.neighbors(cell);
+      this.seenNonWumpus |= (stench & cell) == 0 ? cell | neighbors : cell;
+      this.seenNonPit |= (breeze & cell) == 0 ? cell | neighbors : cell;
+      if ((stench & cell) != 0) this.stenchNeighbors &= neighbors;
+    }
+    this.seen = loaded;
+  }
+
+  /**
+   * Infers the masks from the masks of the loaded cells and the current breeze observations.
+   */
+  private void infer() {
+    int breeze = this.getBackEnd().getBreeze().hashCode();
+    this.nonWumpusSpaces = this.seenNonWumpus;
+    this.possibleWumpusSpaces = BitMaps.not(this.nonWumpusSpaces) & this.stenchNeighbors;
+    if (BitMaps.popcount(this.possibleWumpusSpaces) == 1) this.nonWumpusSpaces = BitMaps.not(this.possibleWumpusSpaces);
+    this.nonPitSpaces = this.seenNonPit;
+    if (BitMaps.popcount(this.possibleWumpusSpaces) == 1) this.nonPitSpaces |= this.possibleWumpusSpaces;
+    this.mustPitSpaces = 0;
+    for (int remaining = breeze; remaining != 0; remaining &= remaining - 1) {
+      int pitCandidates = BitMaps.subtract(BitMaps.neighbors(Integer.lowestOneBit(remaining)), this.nonPitSpaces);
+      if (BitMaps.popcount(pitCandidates) == 1) {
+        this.mustPitSpaces |= pitCandidates;
+        this.possibleWumpusSpaces = BitMaps.subtract(this.possibleWumpusSpaces, pitCandidates);
+        this.nonWumpusSpaces |= pitCandidates;
       }
     }
   }
 
+  /**
+   * Returns the cached belief for the observed level state of the last update.
+   *
+   * @return The belief, or null if the bot has no belief cache.
+   */
+  public BeliefCache.Belief getBelief() {
+    return this.belief;
+  }
+
   /**
    * Returns a BitMap representing the safe squares.
    *
    * @return A BitMap representing the safe squares.
    */
   public BitMap getSafeSquares() {
+    return new BitMap(this.getSafeMask());
+  }
+
+  /**
+   * Returns a mask (in the BitMap layout) representing the safe squares.
+   *
+   * @return A mask representing the safe squares.
+   */
+  public int getSafeMask() {
     this.update();
-    return this.nonWumpusSpaces.and(this.nonPitSpaces);
+    return this.nonWumpusSpaces & this.nonPitSpaces;
   }
 
   /**
@@ -80,7 +182,7 @@ public class SafeReturnBot extends RandomBot implements BotInterface {
    * @return nonWumpusSpaces.
    */
   public BitMap getNonWumpusSpaces() {
-    return this.nonWumpusSpaces;
+    return new BitMap(this.nonWumpusSpaces);
   }
 
   /**
@@ -89,7 +191,7 @@ public class SafeReturnBot extends RandomBot implements BotInterface {
    * @return nonPitSpaces.
    */
   public BitMap getNonPitSpaces() {
-    return this.nonPitSpaces;
+    return new BitMap(this.nonPitSpaces);
   }
 
   /**
@@ -98,7 +200,7 @@ public class SafeReturnBot extends RandomBot implements BotInterface {
    * @return mustPitSpaces.
    */
   public BitMap getMustPitSpaces() {
-    return this.mustPitSpaces;
+    return new BitMap(this.mustPitSpaces);
   }
 
   /**
@@ -107,6 +209,6 @@ public class SafeReturnBot extends RandomBot implements BotInterface {
    * @return possibleWumpusSpaces.
    */
   public BitMap getPossibleWumpusSpaces() {
-    return this.possibleWumpusSpaces;
+    return new BitMap(this.possibleWumpusSpaces);
   }
 }
@@ -0,0 +1,412 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Solves the 4x4 world exactly: computes the best expected score from every belief state, and the action achieving it.
+ * <p>
+ * A belief state is what the agent knows: the explored cells with their breeze and stench, the position of the agent,
+ * and what the arrow told. Since the posterior over levels only depends on these, Inference.weight() gives the
+ * probability of every outcome. Walking around explored cells reveals nothing, so the solver plans in macro-actions:
+ * walk the shortest explored path to a cell of the frontier and enter it, walk to an explored cell and shoot from it,
+ * or stop (never move again, which keeps the score). Entering a cell either kills the agent, finds the gold
+ * (after which walking the shortest explored path home is optimal), or reveals its breeze and stench.
+ * Every policy on primitive actions is matched by one on macro-actions with at least its expected score,
+ * so the value of the initial state is an upper bound on the expected score of any bot.
+ * <p>
+ * The position of the agent only matters through the length of the walk to the next action, so the table memoizes,
+ * for every belief state without the position, the score of every action once the agent stands where it takes place;
+ * the walk is added when a state is queried. The table is a fixed-capacity open-addressing table keyed by a packed
+ * long (see key()), which threads fill concurrently without locks. Two threads may solve the same state,
+ * with the same result.
+ * The first levels of the search run their actions in parallel on the common fork-join pool.
+ */
+public class Solver {
+  /**
+   * The action of stopping.
+   */
+  public static final int STOP = 0;
+  /**
+   * The first action of entering a frontier cell; EXPLORE + c enters cell c (4 * row + col).
+   */
+  public static final int EXPLORE = 1;
+  /**
+   * The first action of shooting; SHOOT + 4 * c + d walks to cell c and shoots in the direction with ordinal d.
+   */
+  public static final int SHOOT = 17;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final int UNSHOT = 0, MISS = 1, HIT = 2;
+  private static final int PARALLEL_DEPTH = 2;
+  private static final long POSITION = 15L << 48;
+  private final AtomicLongArray keys;
+  private final AtomicReferenceArray<double[]> scores;
+  private final int mask;
+
+  /**
+   * Constructs a Solver with an empty table.
+   *
+   * @param capacity The number of belief states (without position) the table can hold, rounded up to a power of two.
+   */
+  public Solver(int capacity) {
+    int slots = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    this.keys = new AtomicLongArray(slots);
+    this.scores = new AtomicReferenceArray<>(slots);
+    this.mask = slots - 1;
+  }
+
+  /**
+   * Packs a belief state into a key. The masks are in the BitMap layout, and stored compressed:
+   * bits 0-15 loaded, 16-31 breeze, 32-47 stench, 48-51 the cell of the agent, 52-53 the arrow (unshot, miss or hit),
+   * and bits 54-60 the cells of the line of the arrow that were unexplored when it was shot:
+   * bit 54 whether the line is a column, 55-56 the index of its row or column, 57-60 the cells in it.
+   * A living Wumpus is never in an explored cell, so after a miss or a hit these are all that matter,
+   * and shots from different cells that tell the same merge into the same state.
+   * Keys are never 0, since the origin is always loaded.
+   *
+   * @param loaded        The mask of explored cells.
+   * @param breeze        The mask of explored cells with a breeze.
+   * @param stench        The mask of explored cells with a stench.
+   * @param position      The index (Coordinate.hashCode()) of the agent.
+   * @param arrowShot     Whether the arrow was shot.
+   * @param shotCell      The index of the cell the arrow was shot from, if shot.
+   * @param shotDirection The direction the arrow was shot in, if shot.
+   * @param hit           Whether the arrow hit the Wumpus.
+   * @param loadedAtShot  The mask of cells explored when the arrow was shot.
+   * @return The key.
+   */
+  public static long key(int loaded, int breeze, int stench, int position, boolean arrowShot, int shotCell,
+                         Direction shotDirection, boolean hit, int loadedAtShot) {
+    long key = (long) BitMaps.compress(loaded) | (long) BitMaps.compress(breeze) << 16 |
+        (long) BitMaps.compress(stench) << 32 | (long) (position - position / 5) << 48;
+    if (!arrowShot) return key;
+    int cells = line(1 << shotCell, shotDirection) & ~loadedAtShot;
+    boolean column = shotDirection == Direction.UP || shotDirection == Direction.DOWN;
+    int index = column ? shotCell % 5 : shotCell / 5, subset = 0;
+    for (int i = 0; i < 4; i++) if ((cells >> (column ? 5 * i + index : 5 * index + i) & 1) != 0) subset |= 1 << i;
+    return key | (long) (hit ? HIT : MISS) << 52 | (column ? 1L : 0L) << 54 | (long) index << 55 | (long) subset << 57;
+  }
+
+  /**
+   * Returns the best expected score from a belief state, solving it if needed.
+   *
+   * @param key The key of the belief state.
+   * @return The best expected score from the state.
+   */
+  public double value(long key) {
+    return this.value(key, 0);
+  }
+
+  /**
+   * Returns the best action from a belief state, solving it if needed.
+   *
+   * @param key The key of the belief state.
+   * @return The best action: STOP, EXPLORE + cell or SHOOT + 4 * cell + direction.
+   */
+  public int action(long key) {
+    double[] scores = this.scores(key & ~POSITION, 0);
+    int loaded = BitMaps.expand((int) key & 0xFFFF), cell = (int) (key >>> 48) & 15;
+    int best = -1;
+    double bestScore = 0;
+    for (int i = 0; i < scores.length; i++) {
+      double score = this.walk(loaded, cell + cell / 4, i) + scores[i];
+      if (score > bestScore) {
+        best = i;
+        bestScore = score;
+      }
+    }
+    return best == -1 ? STOP : this.actionOf(loaded, best);
+  }
+
+  /**
+   * Returns the best expected score of the game, before the agent observes the origin.
+   * This is an upper bound on the expected score of any bot.
+   *
+   * @return The best expected score of the game.
+   */
+  public double solve() {
+    double total = 0, value = 0;
+    for (int breeze = 0; breeze <= 1; breeze++)
+      for (int stench = 0; stench <= 1; stench++) {
+        double weight = Inference.weight(1, breeze, stench, 0, BitMaps.FULL, false);
+        if (weight == 0) continue;
+        total += weight;
+        value += weight * this.value(key(1, breeze, stench, 0, false, 0, null, false, 0), 0);
+      }
+    return value / total;
+  }
+
+  /**
+   * Returns the keys of the belief states reached by playing the best actions from the start of the game,
+   * i.e. every state SolverBot may ask for. Together with action(), this is the whole policy of the solver.
+   * Solves the states if needed.
+   *
+   * @return The keys of the reachable belief states.
+   */
+  public long[] policyKeys() {
+    Set<Long> reached = new HashSet<>();
+    ArrayDeque<Long> pending = new ArrayDeque<>();
+    for (int breeze = 0; breeze <= 1; breeze++)
+      for (int stench = 0; stench <= 1; stench++)
+        if (Inference.weight(1, breeze, stench, 0, BitMaps.FULL, false) > 0)
+          pending.add(key(1, breeze, stench, 0, false, 0, null, false, 0));
+    while (!pending.isEmpty()) {
+      long key = pending.poll();
+      if (!reached.add(key)) continue;
+      int action = this.action(key);
+      if (action == STOP) continue;
+      int loaded = BitMaps.expand((int) key & 0xFFFF), breeze = BitMaps.expand((int) (key >>> 16) & 0xFFFF);
+      int stench = BitMaps.expand((int) (key >>> 32) & 0xFFFF), arrow = (int) (key >>> 52) & 3;
+      int wumpusCells = wumpusCells(key);
+      if (action < SHOOT) {
+        // finding the gold ends the plan, since the bot walks home
+        int cell = action - EXPLORE, targetBit = 1 << cell + cell / 4, explored = loaded | targetBit;
+        for (int b = 0; b <= 1; b++)
+          for (int s = 0; s <= 1; s++) {
+            int newBreeze = breeze | b * targetBit, newStench = stench | s * targetBit;
+            if (Inference.weight(explored, newBreeze, newStench, 0, wumpusCells, arrow == HIT) > 0)
+              pending.add(key & ~0xFFFFFFFFFFFFFL | (long) BitMaps.compress(explored) |
+                  (long) BitMaps.compress(newBreeze) << 16 | (long) BitMaps.compress(newStench) << 32 |
+                  (long) cell << 48);
+          }
+      } else {
+        int cell = (action - SHOOT) / 4, from = cell + cell / 4;
+        Direction direction = DIRECTIONS[(action - SHOOT) % 4];
+        int line = line(1 << from, direction);
+        if (Inference.weight(loaded, breeze, stench, 0, line & ~loaded, true) > 0)
+          pending.add(key(loaded, breeze, stench, from, true, from, direction, true, loaded));
+        if (Inference.weight(loaded, breeze, stench, 0, ~line, false) > 0)
+          pending.add(key(loaded, breeze, stench, from, true, from, direction, false, loaded));
+      }
+    }
+    return reached.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * Returns the best expected score from a belief state: the best score of an action, minus the walk to it,
+   * or 0 for stopping.
+   *
+   * @param key   The key of the belief state.
+   * @param depth The number of macro-actions taken from the state passed to solve() or action().
+   * @return The best expected score from the state.
+   */
+  private double value(long key, int depth) {
+    double[] scores = this.scores(key & ~POSITION, depth);
+    int loaded = BitMaps.expand((int) key & 0xFFFF), cell = (int) (key >>> 48) & 15;
+    double best = 0;
+    for (int i = 0; i < scores.length; i++) best = Math.max(best, this.walk(loaded, cell + cell / 4, i) + scores[i]);
+    return best;
+  }
+
+  /**
+   * Returns the number of actions of a belief state: entering every frontier cell,
+   * then, if the arrow is left, shooting from every explored cell in every direction.
+   *
+   * @param loaded    The mask of explored cells.
+   * @param arrowLeft Whether the arrow was not shot yet.
+   * @return The number of actions.
+   */
+  private static int actions(int loaded, boolean arrowLeft) {
+    return BitMaps.popcount(BitMaps.invert(loaded) & BitMaps.neighbors(loaded)) +
+        (arrowLeft ? 4 * BitMaps.popcount(loaded) : 0);
+  }
+
+  /**
+   * Returns the action with the specified index in a belief state.
+   *
+   * @param loaded The mask of explored cells.
+   * @param index  The index of the action.
+   * @return The action: EXPLORE + cell or SHOOT + 4 * cell + direction.
+   */
+  private int actionOf(int loaded, int index) {
+    int frontier = BitMaps.invert(loaded) & BitMaps.neighbors(loaded), explore = BitMaps.popcount(frontier);
+    if (index < explore) {
+      int target = nthBit(frontier, index);
+      return EXPLORE + target - target / 5;
+    }
+    int from = nthBit(loaded, (index - explore) / 4);
+    return SHOOT + 4 * (from - from / 5) + (index - explore) % 4;
+  }
+
+  /**
+   * Returns the (negative) number of points lost by walking from a position to where an action takes place.
+   *
+   * @param loaded   The mask of explored cells.
+   * @param position The index of the agent.
+   * @param index    The index of the action.
+   * @return Minus the length of the walk.
+   */
+  private int walk(int loaded, int position, int index) {
+    int frontier = BitMaps.invert(loaded) & BitMaps.neighbors(loaded), explore = BitMaps.popcount(frontier);
+    if (index < explore) {
+      int target = nthBit(frontier, index);
+      return -PathOracle.distance(position, target, loaded | 1 << target);
+    }
+    return -PathOracle.distance(position, nthBit(loaded, (index - explore) / 4), loaded);
+  }
+
+  /**
+   * Returns the index of the n-th lowest set bit of a mask.
+   *
+   * @param mask The mask.
+   * @param n    The rank of the bit, from 0.
+   * @return The index of the bit.
+   */
+  private static int nthBit(int mask, int n) {
+    for (; n > 0; n--) mask &= mask - 1;
+    return Integer.numberOfTrailingZeros(mask);
+  }
+
+  /**
+   * Returns the scores of the actions of a belief state, solving it if needed.
+   * The score of an action is its expected score once the agent stands where it takes place, playing optimally after.
+   *
+   * @param key   The key of the belief state, without position.
+   * @param depth The number of macro-actions taken from the state passed to solve() or action().
+   * @return The scores of the actions, indexed as in actionOf().
+   */
+  private double[] scores(long key, int depth) {
+    int slot = this.slot(key);
+    double[] stored = this.scores.get(slot);
+    if (stored != null) return stored;
+    int loaded = BitMaps.expand((int) key & 0xFFFF), breeze = BitMaps.expand((int) (key >>> 16) & 0xFFFF);
+    int stench = BitMaps.expand((int) (key >>> 32) & 0xFFFF), arrow = (int) (key >>> 52) & 3;
+    int wumpusCells = wumpusCells(key);
+    double weight = Inference.weight(loaded, breeze, stench, 0, wumpusCells, arrow == HIT);
+    double[] scores = new double[actions(loaded, arrow == UNSHOT)];
+    IntStream indices = IntStream.range(0, scores.length);
+    if (depth < PARALLEL_DEPTH) indices = indices.parallel();
+    indices.forEach(i -> scores[i] = this.score(this.actionOf(loaded, i), loaded, breeze, stench, arrow, key,
+        wumpusCells, weight, depth));
+    this.scores.set(slot, scores);
+    return scores;
+  }
+
+  /**
+   * Returns the expected score of a macro-action from a belief state, once the agent stands where it takes place,
+   * playing optimally afterwards.
+   *
+   * @param action      The macro-action, EXPLORE + cell or SHOOT + 4 * cell + direction.
+   * @param loaded      The mask of explored cells.
+   * @param breeze      The mask of explored cells with a breeze.
+   * @param stench      The mask of explored cells with a stench.
+   * @param arrow       The state of the arrow (UNSHOT, MISS or HIT).
+   * @param key         The key of the belief state, whose arrow bits are kept.
+   * @param wumpusCells The mask of the cells that may hold the Wumpus, as far as the arrow tells.
+   * @param weight      The weight of the belief state.
+   * @param depth       The depth of the belief state.
+   * @return The expected score of the macro-action.
+   */
+  private double score(int action, int loaded, int breeze, int stench, int arrow, long key, int wumpusCells,
+                       double weight, int depth) {
+    long arrowBits = key & ~0xFFFFFFFFFFFFFL; // bits 52 and up
+    if (action < SHOOT) {
+      int cell = action - EXPLORE, target = cell + cell / 4, targetBit = 1 << target, explored = loaded | targetBit;
+      double score = 0, alive = 0;
+      double home = 1000 - PathOracle.distance(target, 0, explored);
+      boolean dead = arrow == HIT;
+      for (int b = 0; b <= 1; b++)
+        for (int s = 0; s <= 1; s++) {
+          int newBreeze = breeze | b * targetBit, newStench = stench | s * targetBit;
+          double gold = Inference.weight(explored, newBreeze, newStench, targetBit, wumpusCells, dead);
+          score += gold / weight * home;
+          double next = Inference.weight(explored, newBreeze, newStench, 0, wumpusCells, dead);
+          if (next > 0) score += next / weight * this.value(arrowBits | (long) BitMaps.compress(explored) |
+              (long) BitMaps.compress(newBreeze) << 16 | (long) BitMaps.compress(newStench) << 32 |
+              (long) cell << 48, depth + 1);
+          alive += gold + next;
+        }
+      return score - (1 - alive / weight) * 1000;
+    }
+    int cell = (action - SHOOT) / 4, from = cell + cell / 4;
+    Direction direction = DIRECTIONS[(action - SHOOT) % 4];
+    int line = line(1 << from, direction);
+    double hit = line == 0 ? 0 : Inference.weight(loaded, breeze, stench, 0, line & ~loaded, true);
+    // a shot that cannot hit tells nothing and costs points
+    if (hit == 0) return Double.NEGATIVE_INFINITY;
+    double score = -10 + hit / weight * this.value(key(loaded, breeze, stench, from, true, from, direction, true,
+        loaded), depth + 1);
+    double miss = Inference.weight(loaded, breeze, stench, 0, ~line, false);
+    if (miss > 0) score += miss / weight * this.value(key(loaded, breeze, stench, from, true, from, direction, false,
+        loaded), depth + 1);
+    return score;
+  }
+
+  /**
+   * Returns the mask of the cells that may hold the Wumpus, as far as the arrow tells.
+   *
+   * @param key The key of the belief state.
+   * @return The mask of the cells that may hold the Wumpus.
+   */
+  private static int wumpusCells(long key) {
+    int arrow = (int) (key >>> 52) & 3, index = (int) (key >>> 55) & 3, subset = (int) (key >>> 57) & 15;
+    if (arrow == UNSHOT) return BitMaps.FULL;
+    boolean column = (key >>> 54 & 1) == 1;
+    int cells = 0;
+    for (int i = 0; i < 4; i++) if ((subset >> i & 1) != 0) cells |= 1 << (column ? 5 * i + index : 5 * index + i);
+    return arrow == HIT ? cells : ~cells;
+  }
+
+  /**
+   * Returns the mask of the cells an arrow flies through.
+   *
+   * @param from      The mask of the cell the arrow is shot from.
+   * @param direction The direction of the shot.
+   * @return The mask of the cells the arrow flies through.
+   */
+  private static int line(int from, Direction direction) {
+    int line = 0;
+    for (int arrow = BitMaps.move(from, direction); arrow != 0; arrow = BitMaps.move(arrow, direction)) line |= arrow;
+    return line;
+  }
+
+  /**
+   * Returns the slot of a key, inserting it if it is not in the table yet.
+   *
+   * @param key The key.
+   * @return The slot of the key.
+   */
+  private int slot(long key) {
+    for (int probe = 0, slot = (int) ID.mix(key) & this.mask; probe <= this.mask; probe++, slot = slot + 1 & this.mask) {
+      long stored = this.keys.get(slot);
+      if (stored == key) return slot;
+      if (stored == 0 && (this.keys.compareAndSet(slot, 0, key) || this.keys.get(slot) == key)) return slot;
+    }
+    throw new IllegalStateException("The solver table is full. ");
+  }
+
+  /**
+   * Returns the number of solved states. Scans the table, so it is slow.
+   *
+   * @return The number of solved states.
+   */
+  public int size() {
+    int size = 0;
+    for (int slot = 0; slot <= this.mask; slot++) if (this.scores.get(slot) != null) size++;
+    return size;
+  }
+
+  /**
+   * Main method to solve the game from the command line.
+   *
+   * @param args Command line arguments: the capacity of the table (default 2^24),
+   *             and optionally the path of a PolicyFile to write the policy to.
+   * @throws IOException If the policy cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Solver solver = new Solver(args.length > 0 ? Integer.parseInt(args[0]) : 1 << 24);
+    long start = System.nanoTime();
+    double value = solver.solve();
+    System.out.printf("Best expected score: %.6f%n", value);
+    System.out.printf("States: %d, seconds: %.1f%n", solver.size(), (System.nanoTime() - start) / 1e9);
+    if (args.length > 1) {
+      long[] keys = solver.policyKeys();
+      PolicyFile.write(Path.of(args[1]), keys, solver::action);
+      System.out.printf("Wrote %d policy states to %s%n", keys.length, args[1]);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+import java.util.function.LongToIntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * A bot that plays the optimal policy of a Solver, or a policy written from one to a PolicyFile.
+ * It asks the policy for the best macro-action whenever its observations change, and walks it step by step.
+ * With a Solver, states are solved lazily, the first time they are reached, so a fresh solver fills up as games are
+ * played. States missing from a PolicyFile are played by stopping.
+ */
+public class SolverBot extends RandomBot {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private final LongToIntFunction policy;
+  private int loadedAtShot = 0, plan = Solver.STOP;
+  private long planKey = 0;
+
+  /**
+   * Constructs a SolverBot with the specified BackEnd, random source and solver.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source associated with the bot, which it does not use.
+   * @param solver  The solver, which may be shared with other bots on other threads.
+   */
+  public SolverBot(BackEnd backEnd, RandomGenerator random, Solver solver) {
+    this(backEnd, random, solver::action);
+  }
+
+  /**
+   * Constructs a SolverBot that plays from a policy, such as a PolicyFile.
+   *
+   * @param backEnd The BackEnd associated with the bot.
+   * @param random  The random source associated with the bot, which it does not use.
+   * @param policy  The policy, which maps the key (see getStateKey()) of a belief state to an action of the Solver,
+   *                or to a negative number if the state is unknown. It may be shared with other bots on other threads.
+   */
+  public SolverBot(BackEnd backEnd, RandomGenerator random, LongToIntFunction policy) {
+    super(backEnd, random);
+    this.policy = policy;
+  }
+
+  /**
+   * Makes the next step of the best macro-action, or walks home with the gold.
+   * Does nothing once the best action is to stop, or the state is unknown.
+   */
+  public void action() {
+    BackEnd backEnd = this.getBackEnd();
+    Level level = backEnd.getLevel();
+    int position = level.getAgentCoord().hashCode(), loaded = backEnd.getLoaded().hashCode();
+    if (!level.hasGold()) {
+      level.move(PathOracle.direction(position, 0, loaded));
+      return;
+    }
+    long key = backEnd.getKey();
+    if (key != this.planKey) {
+      this.planKey = key;
+      this.plan = this.policy.applyAsInt(this.getStateKey());
+    }
+    if (this.plan <= Solver.STOP) return;
+    if (this.plan < Solver.SHOOT) {
+      int cell = this.plan - Solver.EXPLORE, target = cell + cell / 4;
+      level.move(PathOracle.direction(position, target, loaded | 1 << target));
+      return;
+    }
+    int cell = (this.plan - Solver.SHOOT) / 4, from = cell + cell / 4;
+    if (position != from) level.move(PathOracle.direction(position, from, loaded));
+    else {
+      this.loadedAtShot = loaded;
+      level.shoot(DIRECTIONS[(this.plan - Solver.SHOOT) % 4]);
+    }
+  }
+
+  /**
+   * Returns the key (see Solver.key()) of the current belief state.
+   *
+   * @return The key of the current belief state.
+   */
+  public long getStateKey() {
+    BackEnd backEnd = this.getBackEnd();
+    Level level = backEnd.getLevel();
+    boolean shot = !level.hasArrow();
+    return Solver.key(backEnd.getLoaded().hashCode(), backEnd.getBreeze().hashCode(), backEnd.getStench().hashCode(),
+        level.getAgentCoord().hashCode(), shot, shot ? level.getShotCoordinate().hashCode() : 0,
+        shot ? level.getShotDirection() : null, !level.hasWumpus(), this.loadedAtShot);
+  }
+}
@@ -0,0 +1,313 @@
+import java.io.Closeable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Live statistics of bot games, which many simulation threads write to without contention.
+ * <p>
+ * Every bot has a Collector, made of LongAdders: the number of games by end type, the sums of the scores and their
+ * squares, the sum of the steps, a histogram of the scores and a histogram of the number of steps.
+ * A LongAdder spreads contended updates over per-thread cells, which are only summed when a Snapshot is taken,
+ * so readers never pause writers. A snapshot taken while games are added is not atomic: its counters may disagree
+ * by the games added while it was summed.
+ * <p>
+ * A Reporter takes snapshots periodically on a daemon thread, and reports the throughput since the last report.
+ */
+public class Statistics {
+  /**
+   * The score at the lower bound of the first bucket of the score histogram. Lower scores go to the first bucket.
+   */
+  public static final int SCORE_MIN = -12000;
+  /**
+   * The width of the buckets of the score histogram. Higher scores go to the last bucket.
+   */
+  public static final int SCORE_BUCKET = 100;
+  /**
+   * The number of buckets of the score histogram, which covers every score of a game of at most 10000 steps.
+   */
+  public static final int SCORE_BUCKETS = (1000 - SCORE_MIN) / SCORE_BUCKET + 1;
+  /**
+   * The number of buckets of the step histogram: bucket 0 counts games without steps, and bucket b > 0 counts games
+   * with 2^(b - 1) to 2^b - 1 steps.
+   */
+  public static final int STEP_BUCKETS = 32;
+  private final Map<String, Collector> collectors = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the collector of a bot, creating it if needed.
+   *
+   * @param bot The name of the bot.
+   * @return The collector of the bot.
+   */
+  public Collector collector(String bot) {
+    return this.collectors.computeIfAbsent(bot, name -> new Collector());
+  }
+
+  /**
+   * Takes a snapshot of every bot, without pausing the writers.
+   *
+   * @return The snapshots, by bot name in alphabetical order.
+   */
+  public Map<String, Snapshot> snapshot() {
+    Map<String, Snapshot> snapshots = new TreeMap<>();
+    this.collectors.forEach((bot, collector) -> snapshots.put(bot, collector.snapshot()));
+    return snapshots;
+  }
+
+  /**
+   * Starts a reporter that passes a line per bot to a sink every period: the number of games, the throughput since
+   * the last report, and the mean score.
+   *
+   * @param periodMillis The period in milliseconds.
+   * @param sink         The sink of the lines, called on the reporter thread.
+   * @return The reporter, to close once done.
+   */
+  public Reporter startReporter(long periodMillis, Consumer<String> sink) {
+    return new Reporter(periodMillis, sink);
+  }
+
+  /**
+   * Collects the games of one bot. Every method may be called by any thread.
+   */
+  public static class Collector {
+    private final LongAdder sum = new LongAdder(), sumOfSquares = new LongAdder(), steps = new LongAdder();
+    private final LongAdder[] endCounts = adders(End.values().length + 1); // the last slot counts unfinished games
+    private final LongAdder[] scores = adders(SCORE_BUCKETS), stepCounts = adders(STEP_BUCKETS);
+
+    /**
+     * Constructs an empty collector.
+     */
+    private Collector() {
+    }
+
+    /**
+     * Returns new adders.
+     *
+     * @param length The number of adders.
+     * @return The adders.
+     */
+    private static LongAdder[] adders(int length) {
+      LongAdder[] adders = new LongAdder[length];
+      for (int i = 0; i < length; i++) adders[i] = new LongAdder();
+      return adders;
+    }
+
+    /**
+     * Adds a finished (or stopped) game.
+     *
+     * @param level The level after the game.
+     * @param steps The number of actions of the bot.
+     */
+    public void add(Level level, int steps) {
+      long score = level.getScore();
+      this.sum.add(score);
+      this.sumOfSquares.add(score * score);
+      this.steps.add(steps);
+      this.endCounts[level.hasEnded() ? level.endType().ordinal() : End.values().length].increment();
+      this.scores[(int) Math.max(0, Math.min(SCORE_BUCKETS - 1, (score - SCORE_MIN) / SCORE_BUCKET))].increment();
+      this.stepCounts[32 - Integer.numberOfLeadingZeros(steps)].increment();
+    }
+
+    /**
+     * Sums the adders into a snapshot.
+     *
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+      return new Snapshot(System.nanoTime(), this.sum.sum(), this.sumOfSquares.sum(), this.steps.sum(),
+          sums(this.endCounts), sums(this.scores), sums(this.stepCounts));
+    }
+
+    /**
+     * Sums adders.
+     *
+     * @param adders The adders.
+     * @return Their sums.
+     */
+    private static long[] sums(LongAdder[] adders) {
+      long[] sums = new long[adders.length];
+      for (int i = 0; i < adders.length; i++) sums[i] = adders[i].sum();
+      return sums;
+    }
+  }
+
+  /**
+   * The statistics of one bot at one point in time. Immutable.
+   */
+  public static class Snapshot {
+    private final long time, games, sum, sumOfSquares, steps;
+    private final long[] endCounts, scores, stepCounts;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param time         The time of the snapshot (System.nanoTime()).
+     * @param sum          The sum of the scores.
+     * @param sumOfSquares The sum of the squares of the scores.
+     * @param steps        The sum of the steps.
+     * @param endCounts    The number of games by end type, then the number of unfinished games.
+     * @param scores       The score histogram.
+     * @param stepCounts   The step histogram.
+     */
+    private Snapshot(long time, long sum, long sumOfSquares, long steps, long[] endCounts, long[] scores,
+                     long[] stepCounts) {
+      this.time = time;
+      this.sum = sum;
+      this.sumOfSquares = sumOfSquares;
+      this.steps = steps;
+      this.endCounts = endCounts;
+      this.scores = scores;
+      this.stepCounts = stepCounts;
+      long games = 0;
+      for (long count : endCounts) games += count;
+      this.games = games;
+    }
+
+    /**
+     * Returns the time the snapshot was taken at.
+     *
+     * @return The time, as by System.nanoTime().
+     */
+    public long getTime() {
+      return this.time;
+    }
+
+    /**
+     * Returns the number of games.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+      return this.games;
+    }
+
+    /**
+     * Returns the mean score.
+     *
+     * @return The mean score, or 0 without games.
+     */
+    public double getMean() {
+      return this.games == 0 ? 0 : (double) this.sum / this.games;
+    }
+
+    /**
+     * Returns the (sample) variance of the score.
+     *
+     * @return The variance of the score.
+     */
+    public double getVariance() {
+      if (this.games < 2) return 0;
+      return (this.sumOfSquares - this.getMean() * this.sum) / (this.games - 1);
+    }
+
+    /**
+     * Returns the mean number of steps.
+     *
+     * @return The mean number of steps, or 0 without games.
+     */
+    public double getMeanSteps() {
+      return this.games == 0 ? 0 : (double) this.steps / this.games;
+    }
+
+    /**
+     * Returns the number of games that ended with the specified end type.
+     *
+     * @param end The end type.
+     * @return The number of games.
+     */
+    public long getCount(End end) {
+      return this.endCounts[end.ordinal()];
+    }
+
+    /**
+     * Returns the number of games that were stopped before they ended.
+     *
+     * @return The number of unfinished games.
+     */
+    public long getUnfinished() {
+      return this.endCounts[End.values().length];
+    }
+
+    /**
+     * Returns the score histogram: bucket i counts the scores from SCORE_MIN + i * SCORE_BUCKET
+     * (inclusive) to SCORE_MIN + (i + 1) * SCORE_BUCKET (exclusive).
+     *
+     * @return A copy of the score histogram.
+     */
+    public long[] getScoreHistogram() {
+      return this.scores.clone();
+    }
+
+    /**
+     * Returns the step histogram (see STEP_BUCKETS).
+     *
+     * @return A copy of the step histogram.
+     */
+    public long[] getStepHistogram() {
+      return this.stepCounts.clone();
+    }
+
+    /**
+     * Returns the throughput between an earlier snapshot and this one.
+     *
+     * @param earlier The earlier snapshot of the same bot.
+     * @return The number of games per second.
+     */
+    public double getGamesPerSecond(Snapshot earlier) {
+      return (this.games - earlier.games) / ((this.time - earlier.time) / 1e9);
+    }
+  }
+
+  /**
+   * Reports the statistics periodically on a daemon thread.
+   */
+  public class Reporter implements Closeable {
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "statistics-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    private final Consumer<String> sink;
+    private final long start = System.nanoTime();
+    private Map<String, Snapshot> previous = Statistics.this.snapshot();
+
+    /**
+     * Constructs and starts a Reporter.
+     *
+     * @param periodMillis The period in milliseconds.
+     * @param sink         The sink of the lines.
+     */
+    private Reporter(long periodMillis, Consumer<String> sink) {
+      this.sink = sink;
+      this.executor.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reports a line per bot.
+     */
+    private void report() {
+      Map<String, Snapshot> current = Statistics.this.snapshot();
+      current.forEach((bot, snapshot) -> {
+        Snapshot earlier = this.previous.get(bot);
+        double rate = earlier == null ? snapshot.getGames() / ((snapshot.getTime() - this.start) / 1e9) :
+            snapshot.getGamesPerSecond(earlier);
+        this.sink.accept(String.format("%s: %d games, %.1f games/sec, mean score %.3f", bot, snapshot.getGames(),
+            rate, snapshot.getMean()));
+      });
+      this.previous = current;
+    }
+
+    /**
+     * Stops the reporter.
+     */
+    public void close() {
+      this.executor.shutdownNow();
+    }
+  }
+}
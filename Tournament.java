@@ -0,0 +1,327 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+import java.util.random.RandomGenerator;
+import java.util.stream.LongStream;
+
+/**
+ * Runs many bot games headlessly and in parallel, and aggregates their results.
+ * Unlike GUI.botGame(), nothing is rendered, so the throughput is only bounded by the bots themselves.
+ * Games are spread over every core with the common fork-join pool.
+ * Every game is generated and played from its own 64-bit seed, so any game can be replayed with play(seed),
+ * and the results of a run only depend on its base seed, not on the scheduling of the threads.
+ */
+public class Tournament {
+  private final BiFunction<BackEnd, RandomGenerator, BotInterface> botFactory;
+  private final int maxSteps;
+  private GameRecorder recorder = null;
+  private Statistics.Collector statistics = null;
+
+  /**
+   * Constructs a Tournament for the specified bot with a default step limit of 10000 steps per game.
+   *
+   * @param botFactory Creates a bot for a given BackEnd and random source, e.g. SafeExploreBot::new.
+   */
+  public Tournament(BiFunction<BackEnd, RandomGenerator, BotInterface> botFactory) {
+    this(botFactory, 10000);
+  }
+
+  /**
+   * Constructs a Tournament for the specified bot with the specified step limit.
+   * Games that exceed the step limit are stopped and counted as unfinished,
+   * since a bot that keeps bumping into walls would otherwise never end.
+   *
+   * @param botFactory Creates a bot for a given BackEnd and random source, e.g. SafeExploreBot::new.
+   * @param maxSteps   The maximum number of actions per game.
+   */
+  public Tournament(BiFunction<BackEnd, RandomGenerator, BotInterface> botFactory, int maxSteps) {
+    this.botFactory = botFactory;
+    this.maxSteps = maxSteps;
+  }
+
+  /**
+   * Plays the specified number of games in parallel with a random base seed.
+   *
+   * @param games The number of games to play.
+   * @return The aggregated results of the games.
+   */
+  public Result run(long games) {
+    return this.run(games, new SplittableRandom().nextLong());
+  }
+
+  /**
+   * Plays the specified number of games in parallel.
+   * Game number i is played with the seed baseSeed + i.
+   *
+   * @param games    The number of games to play.
+   * @param baseSeed The seed of the first game.
+   * @return The aggregated results of the games.
+   */
+  public Result run(long games, long baseSeed) {
+    long start = System.nanoTime();
+    Result result = LongStream.range(0, games).parallel()
+        .collect(Result::new, (partial, game) -> partial.add(this.play(baseSeed + game)), Result::merge);
+    result.baseSeed = baseSeed;
+    result.elapsed = System.nanoTime() - start;
+    return result;
+  }
+
+  /**
+   * Plays a single game until it ends or the step limit is reached.
+   * Both the level and the random actions of the bot are drawn from the seed.
+   *
+   * @param seed The seed of the game.
+   * @return The level after the game.
+   */
+  public Level play(long seed) {
+    RandomGenerator random = new SplittableRandom(seed);
+    return this.play(Level.generateLevel(random), random, seed);
+  }
+
+  /**
+   * Plays a single game on the specified level until it ends or the step limit is reached.
+   * The random actions of the bot are drawn from the seed.
+   *
+   * @param level The level to play, which is modified.
+   * @param seed  The seed of the random source of the bot.
+   * @return The level after the game.
+   */
+  public Level play(Level level, long seed) {
+    return this.play(level, new SplittableRandom(seed), seed);
+  }
+
+  /**
+   * Plays a single game, and records it if a recorder is set and adds it to the statistics if they are set.
+   *
+   * @param level  The level to play, which is modified.
+   * @param random The random source of the bot.
+   * @param seed   The seed of the game, which is recorded.
+   * @return The level after the game.
+   */
+  private Level play(Level level, RandomGenerator random, long seed) {
+    BackEnd backEnd = new BackEnd(level);
+    BotInterface bot = this.botFactory.apply(backEnd, random);
+    GameRecorder.Game game = this.recorder == null ? null : this.recorder.start(seed, level);
+    backEnd.updateObservations();
+    int step = 0;
+    try {
+      for (; step < this.maxSteps && !level.hasEnded(); step++) {
+        bot.action();
+        backEnd.updateObservations();
+      }
+    } finally {
+      // a game where the bot throws is recorded too, up to the action that failed
+      if (game != null) this.recorder.finish(game, level);
+    }
+    if (this.statistics != null) this.statistics.add(level, step);
+    return level;
+  }
+
+  /**
+   * Sets the recorder that every game played from now on is recorded to.
+   *
+   * @param recorder The recorder, which may be shared with other tournaments, or null to stop recording.
+   */
+  public void setRecorder(GameRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Sets the collector that every game played from now on is added to, so that its progress can be read live.
+   *
+   * @param statistics The collector, which may be shared with other tournaments, or null to stop collecting.
+   */
+  public void setStatistics(Statistics.Collector statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Aggregated results of a number of games.
+   * Sums are kept exactly in longs, so partial results can be merged in any order.
+   */
+  public static class Result {
+    private long games = 0, sum = 0, sumOfSquares = 0, elapsed = 0, baseSeed = 0;
+    private final long[] endCounts = new long[End.values().length + 1]; // the last slot counts unfinished games
+
+    /**
+     * Adds a finished (or stopped) game to the result.
+     *
+     * @param level The level after the game.
+     */
+    public void add(Level level) {
+      long score = level.getScore();
+      this.games++;
+      this.sum += score;
+      this.sumOfSquares += score * score;
+      this.endCounts[level.hasEnded() ? level.endType().ordinal() : End.values().length]++;
+    }
+
+    /**
+     * Merges another partial result into this one.
+     *
+     * @param other The other partial result.
+     */
+    public void merge(Result other) {
+      this.games += other.games;
+      this.sum += other.sum;
+      this.sumOfSquares += other.sumOfSquares;
+      for (int i = 0; i < this.endCounts.length; i++) this.endCounts[i] += other.endCounts[i];
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return The number of games played.
+     */
+    public long getGames() {
+      return this.games;
+    }
+
+    /**
+     * Returns the mean score.
+     *
+     * @return The mean score.
+     */
+    public double getMean() {
+      return (double) this.sum / this.games;
+    }
+
+    /**
+     * Returns the (sample) variance of the score.
+     *
+     * @return The variance of the score.
+     */
+    public double getVariance() {
+      if (this.games < 2) return 0;
+      double mean = this.getMean();
+      return (this.sumOfSquares - mean * this.sum) / (this.games - 1);
+    }
+
+    /**
+     * Returns the number of games that ended with the specified end type.
+     *
+     * @param end The end type.
+     * @return The number of games that ended with the specified end type.
+     */
+    public long getCount(End end) {
+      return this.endCounts[end.ordinal()];
+    }
+
+    /**
+     * Returns the number of games that were stopped by the step limit.
+     *
+     * @return The number of unfinished games.
+     */
+    public long getUnfinished() {
+      return this.endCounts[End.values().length];
+    }
+
+    /**
+     * Returns the seed of the first game of the run.
+     *
+     * @return The base seed.
+     */
+    public long getBaseSeed() {
+      return this.baseSeed;
+    }
+
+    /**
+     * Returns the throughput of the run.
+     *
+     * @return The number of games per second.
+     */
+    public double getGamesPerSecond() {
+      return this.games / (this.elapsed / 1e9);
+    }
+
+    /**
+     * Returns a string representation of the result.
+     *
+     * @return A string representation of the result.
+     */
+    public String toString() {
+      StringBuilder string = new StringBuilder();
+      string.append("Games: ").append(this.games).append("\n");
+      string.append("Base seed: ").append(this.baseSeed).append("\n");
+      string.append("Games/sec: ").append(String.format("%.1f", this.getGamesPerSecond())).append("\n");
+      string.append("Mean score: ").append(String.format("%.3f", this.getMean())).append("\n");
+      string.append("Variance: ").append(String.format("%.3f", this.getVariance())).append("\n");
+      for (End end : End.values())
+        string.append(end).append(": ").append(this.getCount(end)).append("\n");
+      string.append("UNFINISHED: ").append(this.getUnfinished()).append("\n");
+      return string.toString();
+    }
+  }
+
+  /**
+   * Returns the bot factory associated with the specified name.
+   *
+   * @param name The name of the bot (random, safereturn, safeexplore, bot, cached for a Bot sharing a BeliefCache,
+   *             solver for the optimal policy of a shared Solver, or policy=PATH for a SolverBot playing the
+   *             PolicyFile at PATH).
+   * @return The corresponding bot factory.
+   */
+  public static BiFunction<BackEnd, RandomGenerator, BotInterface> getBot(String name) {
+    if (name.startsWith("policy=")) {
+      try {
+        PolicyFile policy = PolicyFile.open(Path.of(name.substring("policy=".length())));
+        return (backEnd, random) -> new SolverBot(backEnd, random, policy);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    switch (name.toLowerCase()) {
+      case "random":
+        return RandomBot::new;
+      case "safereturn":
+        return SafeReturnBot::new;
+      case "safeexplore":
+        return SafeExploreBot::new;
+      case "bot":
+        return Bot::new;
+      case "cached":
+        BeliefCache cache = new BeliefCache(1 << 20);
+        return (backEnd, random) -> new Bot(backEnd, random, cache);
+      case "solver":
+        Solver solver = new Solver(1 << 24);
+        return (backEnd, random) -> new SolverBot(backEnd, random, solver);
+      default:
+        throw new IllegalArgumentException("Invalid bot: " + name);
+    }
+  }
+
+  /**
+   * Main method to run a tournament from the command line.
+   *
+   * @param args Command line arguments: the name of the bot (default bot), the number of games (default 1000000),
+   *             the base seed (random by default), and the path of a GameRecorder log to record the games the bot
+   *             did not win to (none by default). The progress is reported to the standard error every 5 seconds.
+   * @throws IOException If the log cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    String name = args.length > 0 ? args[0] : "bot";
+    long games = args.length > 1 ? Long.parseLong(args[1]) : 1000000;
+    System.out.println("Bot: " + name);
+    // the cached bot keeps its cache here, so that its counters can be printed after the games
+    BeliefCache cache = name.equalsIgnoreCase("cached") ? new BeliefCache(1 << 20) : null;
+    Tournament tournament = new Tournament(cache == null ? getBot(name) : (backEnd, random) -> new Bot(backEnd, random,
+        cache));
+    // the recorder is closed even if a bot throws, so that the games buffered by every thread are written
+    try (GameRecorder recorder = args.length > 3 ?
+        new GameRecorder(Path.of(args[3]), level -> level.endType() != End.WIN) : null) {
+      tournament.setRecorder(recorder);
+      Statistics statistics = new Statistics();
+      tournament.setStatistics(statistics.collector(name));
+      Statistics.Reporter reporter = statistics.startReporter(5000, System.err::println);
+      try {
+        if (args.length > 2) System.out.print(tournament.run(games, Long.parseLong(args[2])));
+        else System.out.print(tournament.run(games));
+      } finally {
+        reporter.close();
+      }
+      if (cache != null) System.out.println("Cache: " + cache);
+    }
+  }
+}
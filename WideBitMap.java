@@ -0,0 +1,200 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Represents a bitmap of a Board of any size (e.g. 16x16 or 64x64), backed by a multi-word long[] bitset.
+ * Cell row * columns + col is stored in bit index % 64 of word index / 64.
+ */
+public class WideBitMap implements BoardMap {
+  private final Board board;
+  private final long[] words;
+
+  /**
+   * Constructs an empty bitmap of the specified board.
+   *
+   * @param board The board.
+   */
+  public WideBitMap(Board board) {
+    this(board, new long[board.getWords()]);
+  }
+
+  /**
+   * Constructs a bitmap of the specified board with the given words, which are taken over, not copied.
+   *
+   * @param board The board.
+   * @param words The words of the bitmap, one long per 64 cells.
+   */
+  private WideBitMap(Board board, long[] words) {
+    this.board = board;
+    this.words = words;
+  }
+
+  /**
+   * Returns the words of the other map, which must belong to the same board.
+   *
+   * @param other The other map.
+   * @return The words of the other map.
+   */
+  private long[] wordsOf(BoardMap other) {
+    if (other.getBoard() != this.board) throw new IllegalArgumentException("Maps of different boards. ");
+    return ((WideBitMap) other).words;
+  }
+
+  public Board getBoard() {
+    return this.board;
+  }
+
+  public boolean get(Coordinate coordinate) {
+    return this.get(this.board.index(coordinate));
+  }
+
+  public boolean get(int index) {
+    return (this.words[index >>> 6] >>> index & 1) == 1;
+  }
+
+  public void update(Coordinate coordinate) {
+    int index = this.board.index(coordinate);
+    this.words[index >>> 6] |= 1L << index;
+  }
+
+  public void update(BoardMap other) {
+    long[] words = this.wordsOf(other);
+    for (int i = 0; i < this.words.length; i++) this.words[i] |= words[i];
+  }
+
+  public void remove(Coordinate coordinate) {
+    int index = this.board.index(coordinate);
+    this.words[index >>> 6] &= ~(1L << index);
+  }
+
+  public void filter(BoardMap other) {
+    long[] words = this.wordsOf(other);
+    for (int i = 0; i < this.words.length; i++) this.words[i] &= words[i];
+  }
+
+  public BoardMap and(BoardMap other) {
+    long[] words = this.wordsOf(other), result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) result[i] = this.words[i] & words[i];
+    return new WideBitMap(this.board, result);
+  }
+
+  public BoardMap or(BoardMap other) {
+    long[] words = this.wordsOf(other), result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) result[i] = this.words[i] | words[i];
+    return new WideBitMap(this.board, result);
+  }
+
+  public BoardMap subtract(BoardMap other) {
+    long[] words = this.wordsOf(other), result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) result[i] = this.words[i] & ~words[i];
+    return new WideBitMap(this.board, result);
+  }
+
+  public BoardMap not() {
+    long[] full = this.board.getFull(), result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) result[i] = ~this.words[i] & full[i];
+    return new WideBitMap(this.board, result);
+  }
+
+  /**
+   * Outputs a bitmap featuring all the orthogonal neighbors of all the cells in this bitmap.
+   * Shifts the whole bitset by the number of columns as up or down and by 1 as left and right,
+   * carrying bits across words; the column masks drop the bits that would wrap around into the neighboring row.
+   *
+   * @return A new bitmap representing the neighbors of this bitmap.
+   */
+  public BoardMap getNeighbors() {
+    int columns = this.board.getColumns();
+    long[] full = this.board.getFull(), notFirst = this.board.getNotFirstColumn(), notLast = this.board.getNotLastColumn();
+    long[] result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (shiftUp(this.words, i, 1) & notFirst[i]) | (shiftDown(this.words, i, 1) & notLast[i]) |
+          shiftUp(this.words, i, columns) | shiftDown(this.words, i, columns);
+      result[i] &= full[i];
+    }
+    return new WideBitMap(this.board, result);
+  }
+
+  /**
+   * Returns word i of the bitset shifted towards higher indices.
+   * (x &gt;&gt;&gt; 1) &gt;&gt;&gt; (63 - r) is x &gt;&gt;&gt; (64 - r) for r &gt; 0 and 0 for r = 0, without branching.
+   *
+   * @param words  The bitset.
+   * @param i      The index of the word.
+   * @param amount The number of bits to shift by.
+   * @return Word i of the shifted bitset.
+   */
+  private static long shiftUp(long[] words, int i, int amount) {
+    int j = i - (amount >>> 6), r = amount & 63;
+    long high = j >= 0 ? words[j] << r : 0;
+    long low = j >= 1 ? (words[j - 1] >>> 1) >>> (63 - r) : 0;
+    return high | low;
+  }
+
+  /**
+   * Returns word i of the bitset shifted towards lower indices.
+   * (x &lt;&lt; 1) &lt;&lt; (63 - r) is x &lt;&lt; (64 - r) for r &gt; 0 and 0 for r = 0, without branching.
+   *
+   * @param words  The bitset.
+   * @param i      The index of the word.
+   * @param amount The number of bits to shift by.
+   * @return Word i of the shifted bitset.
+   */
+  private static long shiftDown(long[] words, int i, int amount) {
+    int j = i + (amount >>> 6), r = amount & 63;
+    long low = j < words.length ? words[j] >>> r : 0;
+    long high = j + 1 < words.length ? (words[j + 1] << 1) << (63 - r) : 0;
+    return high | low;
+  }
+
+  public int size() {
+    int size = 0;
+    for (long word : this.words) size += Long.bitCount(word);
+    return size;
+  }
+
+  public boolean isEmpty() {
+    for (long word : this.words) if (word != 0) return false;
+    return true;
+  }
+
+  public void forEach(IntConsumer action) {
+    for (int i = 0; i < this.words.length; i++)
+      for (long remaining = this.words[i]; remaining != 0; remaining &= remaining - 1)
+        action.accept(i << 6 | Long.numberOfTrailingZeros(remaining));
+  }
+
+  public BoardMap copy() {
+    return new WideBitMap(this.board, this.words.clone());
+  }
+
+  /**
+   * Returns the hash code of the bitmap.
+   *
+   * @return The hash code of the bitmap.
+   */
+  public int hashCode() {
+    return Arrays.hashCode(this.words);
+  }
+
+  /**
+   * Checks if two bitmaps belong to the same board and have the same cells.
+   *
+   * @param other The other object to compare with.
+   * @return true if the bitmaps are equal, false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other == null || other.getClass() != this.getClass()) return false;
+    WideBitMap bitmap = (WideBitMap) other;
+    return this.board == bitmap.board && Arrays.equals(this.words, bitmap.words);
+  }
+
+  /**
+   * Returns a string representation of the bitmap. Bits are represented as "." for off and "#" for on.
+   *
+   * @return The string representation of the bitmap.
+   */
+  public String toString() {
+    return this.toString(".", "#");
+  }
+}
@@ -0,0 +1,370 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * The workloads measured by the JMH benchmarks in benchmarks/bench.
+ * JMH cannot generate benchmarks for classes in the default package, and classes outside of it cannot see ours,
+ * so every workload is exposed here as a public static method returning an IntSupplier,
+ * which the benchmark looks up by name once and then calls in its measurement loop.
+ * Each supplier cycles through 1024 pregenerated inputs and returns a value that depends on the work done.
+ */
+public class Workloads {
+  private static final int INPUTS = 1024; // a power of two, so the input index can be masked
+
+  /**
+   * Generates a random level.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier generateLevel() {
+    SplittableRandom random = new SplittableRandom(0);
+    return () -> Level.generateLevel(random).getAgentCoord().hashCode();
+  }
+
+  /**
+   * Draws a random packed level with LevelGenerator, which has the distribution of generateLevel.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier levelGeneratorDraw() {
+    SplittableRandom random = new SplittableRandom(0);
+    return () -> LevelGenerator.draw(random);
+  }
+
+  /**
+   * Moves the agent up and down the first column of a level without pits, so the game never ends.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier levelMove() {
+    Level level = new Level(new BitMap(), new Coordinate(3, 3), new Coordinate(3, 2));
+    return new IntSupplier() {
+      private boolean down = true;
+
+      public int getAsInt() {
+        this.down = !this.down;
+        return level.move(this.down ? Direction.DOWN : Direction.UP) ? 1 : 0;
+      }
+    };
+  }
+
+  /**
+   * Shoots the arrow in a random direction on a fresh level, since every level only has one arrow.
+   * The cost of constructing the level is included.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier levelShoot() {
+    SplittableRandom random = new SplittableRandom(0);
+    BitMap[] pits = new BitMap[INPUTS];
+    Coordinate[] wumpus = new Coordinate[INPUTS], gold = new Coordinate[INPUTS];
+    Direction[] directions = new Direction[INPUTS];
+    for (int i = 0; i < INPUTS; i++) {
+      pits[i] = BitMap.uniform(0.2, random);
+      pits[i].remove(new Coordinate());
+      wumpus[i] = Coordinate.random(random);
+      gold[i] = Coordinate.random(random);
+      directions[i] = Direction.random(random);
+    }
+    int[] index = {0};
+    return () -> {
+      int i = index[0]++ & INPUTS - 1;
+      Level level = new Level(pits[i], wumpus[i], gold[i]);
+      level.shoot(directions[i]);
+      return level.hasWumpus() ? 1 : 0;
+    };
+  }
+
+  /**
+   * Moves the agents of 1024 games of a LevelBatch in random directions, regenerating the batch every 1024 steps.
+   * Each call steps the whole batch, so divide the time by 1024 to compare with levelMove.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier levelBatchMove() {
+    SplittableRandom random = new SplittableRandom(0);
+    LevelBatch batch = new LevelBatch(INPUTS);
+    batch.generate(random);
+    int[][] directions = new int[INPUTS][INPUTS];
+    for (int[] step : directions) for (int i = 0; i < INPUTS; i++) step[i] = random.nextInt(4);
+    int[] index = {0};
+    return () -> {
+      int step = index[0]++ & INPUTS - 1;
+      if (step == 0) batch.generate(random);
+      batch.move(directions[step]);
+      return batch.getScore(step);
+    };
+  }
+
+  /**
+   * Returns random BitMaps.
+   *
+   * @param seed The seed to draw them from.
+   * @return Random BitMaps.
+   */
+  private static BitMap[] bitMaps(long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    BitMap[] bitMaps = new BitMap[INPUTS];
+    for (int i = 0; i < INPUTS; i++) bitMaps[i] = BitMap.random(random);
+    return bitMaps;
+  }
+
+  /**
+   * Computes BitMap.and on random BitMaps.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bitMapAnd() {
+    BitMap[] a = bitMaps(0), b = bitMaps(1);
+    int[] index = {0};
+    return () -> {
+      int i = index[0]++ & INPUTS - 1;
+      return a[i].and(b[i]).hashCode();
+    };
+  }
+
+  /**
+   * Computes BitMap.or on random BitMaps.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bitMapOr() {
+    BitMap[] a = bitMaps(0), b = bitMaps(1);
+    int[] index = {0};
+    return () -> {
+      int i = index[0]++ & INPUTS - 1;
+      return a[i].or(b[i]).hashCode();
+    };
+  }
+
+  /**
+   * Computes BitMap.subtract on random BitMaps.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bitMapSubtract() {
+    BitMap[] a = bitMaps(0), b = bitMaps(1);
+    int[] index = {0};
+    return () -> {
+      int i = index[0]++ & INPUTS - 1;
+      return a[i].subtract(b[i]).hashCode();
+    };
+  }
+
+  /**
+   * Computes BitMap.not on random BitMaps.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bitMapNot() {
+    BitMap[] a = bitMaps(0);
+    int[] index = {0};
+    return () -> a[index[0]++ & INPUTS - 1].not().hashCode();
+  }
+
+  /**
+   * Computes BitMap.getNeighbors on random BitMaps.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bitMapNeighbors() {
+    BitMap[] a = bitMaps(0);
+    int[] index = {0};
+    return () -> a[index[0]++ & INPUTS - 1].getNeighbors().hashCode();
+  }
+
+  /**
+   * Computes BitMap.size on random BitMaps.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bitMapSize() {
+    BitMap[] a = bitMaps(0);
+    int[] index = {0};
+    return () -> a[index[0]++ & INPUTS - 1].size();
+  }
+
+  /**
+   * Random path queries: starting coordinates, target coordinates and safe BitMaps with 80% safe cells.
+   */
+  private static class Queries {
+    private final Coordinate[] from = new Coordinate[INPUTS], to = new Coordinate[INPUTS];
+    private final BitMap[] safe = new BitMap[INPUTS];
+    private int index = 0;
+
+    /**
+     * Generates the queries.
+     */
+    private Queries() {
+      SplittableRandom random = new SplittableRandom(0);
+      for (int i = 0; i < INPUTS; i++) {
+        this.from[i] = Coordinate.random(random);
+        this.to[i] = Coordinate.random(random);
+        this.safe[i] = BitMap.uniform(0.8, random);
+      }
+    }
+
+    /**
+     * Advances to the next query.
+     *
+     * @return The index of the next query.
+     */
+    private int next() {
+      return this.index++ & INPUTS - 1;
+    }
+  }
+
+  /**
+   * Finds shortest paths with BFS.directions.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bfsDirections() {
+    Queries queries = new Queries();
+    return () -> {
+      int i = queries.next();
+      ArrayList<Direction> path = BFS.directions(queries.from[i], queries.to[i], queries.safe[i]);
+      return path == null ? -1 : path.size();
+    };
+  }
+
+  /**
+   * Finds shortest paths with BFS.frontierDirections.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bfsFrontierDirections() {
+    Queries queries = new Queries();
+    return () -> {
+      int i = queries.next();
+      ArrayList<Direction> path = BFS.frontierDirections(queries.from[i], queries.to[i], queries.safe[i]);
+      return path == null ? -1 : path.size();
+    };
+  }
+
+  /**
+   * Finds shortest path lengths with BFS.distance.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier bfsDistance() {
+    Queries queries = new Queries();
+    return () -> {
+      int i = queries.next();
+      return BFS.distance(queries.from[i], queries.to[i], queries.safe[i]);
+    };
+  }
+
+  /**
+   * Finds shortest path lengths with PathOracle.distance.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier pathOracleDistance() {
+    Queries queries = new Queries();
+    return () -> {
+      int i = queries.next();
+      return PathOracle.distance(queries.from[i].hashCode(), queries.to[i].hashCode(), queries.safe[i].hashCode());
+    };
+  }
+
+  /**
+   * Collects bots in the middle of their games.
+   * Each bot is stopped after a random number of actions, as long as its game has not ended.
+   *
+   * @param seed The seed to generate the games from.
+   * @return The collected bots.
+   */
+  public static SafeExploreBot[] positions(long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    SafeExploreBot[] bots = new SafeExploreBot[INPUTS];
+    for (int i = 0; i < INPUTS; ) {
+      SafeExploreBot bot = new SafeExploreBot(new BackEnd(random), random);
+      bot.getBackEnd().updateObservations();
+      int steps = random.nextInt(12);
+      for (int step = 0; step < steps && !bot.getBackEnd().getLevel().hasEnded(); step++) {
+        bot.action();
+        bot.getBackEnd().updateObservations();
+      }
+      if (!bot.getBackEnd().getLevel().hasEnded()) bots[i++] = bot;
+    }
+    return bots;
+  }
+
+  /**
+   * Runs SafeReturnBot.update() on mid-game positions. The masks stay up to date after the first round,
+   * so this measures the check for new observations.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier safeReturnUpdate() {
+    SafeExploreBot[] bots = positions(0);
+    int[] index = {0};
+    return () -> bots[index[0]++ & INPUTS - 1].getSafeMask();
+  }
+
+  /**
+   * Runs the planning of SafeExploreBot (without moving) on mid-game positions.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier safeExploreDirection() {
+    SafeExploreBot[] bots = positions(0);
+    int[] index = {0};
+    return () -> {
+      Direction direction = bots[index[0]++ & INPUTS - 1].exploreDirection();
+      return direction == null ? -1 : direction.ordinal();
+    };
+  }
+
+  /**
+   * Computes the exact death probabilities with Inference on mid-game positions.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier inference() {
+    SafeExploreBot[] bots = positions(0);
+    int[] index = {0};
+    return () -> new Inference(bots[index[0]++ & INPUTS - 1].getBackEnd()).getSafeMask();
+  }
+
+  /**
+   * Plays full games of the specified bot, one seed after the other.
+   *
+   * @param name The name of the bot, as in Tournament.getBot.
+   * @return The workload.
+   */
+  private static IntSupplier game(String name) {
+    Tournament tournament = new Tournament(Tournament.getBot(name));
+    long[] seed = {0};
+    return () -> tournament.play(seed[0]++).getScore();
+  }
+
+  /**
+   * Plays full games of RandomBot.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier randomBotGame() {
+    return game("random");
+  }
+
+  /**
+   * Plays full games of SafeReturnBot.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier safeReturnBotGame() {
+    return game("safereturn");
+  }
+
+  /**
+   * Plays full games of SafeExploreBot.
+   *
+   * @return The workload.
+   */
+  public static IntSupplier safeExploreBotGame() {
+    return game("safeexplore");
+  }
+}
@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the workloads in Workloads.
+ * Every workload runs in its own fork, so the call to the supplier stays monomorphic.
+ * Run with "-prof gc" to also report the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WumpusBenchmark {
+  @Param({
+      "generateLevel", "levelGeneratorDraw", "levelMove", "levelShoot", "levelBatchMove",
+      "bitMapAnd", "bitMapOr", "bitMapSubtract", "bitMapNot", "bitMapNeighbors", "bitMapSize",
+      "bfsDirections", "bfsFrontierDirections", "bfsDistance", "pathOracleDistance",
+      "safeReturnUpdate", "safeExploreDirection", "inference",
+      "randomBotGame", "safeReturnBotGame", "safeExploreBotGame"
+  })
+  public String workload;
+
+  private IntSupplier supplier;
+
+  /**
+   * Looks up the workload by name.
+   * Workloads lives in the default package, so it can only be reached by reflection.
+   *
+   * @throws ReflectiveOperationException if there is no such workload.
+   */
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    this.supplier = (IntSupplier) Class.forName("Workloads").getMethod(this.workload).invoke(null);
+  }
+
+  /**
+   * Runs the workload once.
+   *
+   * @return The result of the workload, consumed by JMH.
+   */
+  @Benchmark
+  public int run() {
+    return this.supplier.getAsInt();
+  }
+}